@@ -7,7 +7,8 @@ CREATE EXTENSION IF NOT EXISTS vector;
 CREATE SCHEMA IF NOT EXISTS public;
 
 -- A tabela 'embeddings' será criada automaticamente pelo Quarkus LangChain4j
--- Mas podemos criar índices adicionais para performance
+-- O índice ANN (HNSW/IVFFlat) é criado e mantido pela aplicação (VectorIndexService),
+-- configurado por rag.vector-index.* no application.properties
 
 -- Função para verificar se a extensão está instalada
 DO $$
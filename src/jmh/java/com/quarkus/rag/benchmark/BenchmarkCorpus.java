@@ -0,0 +1,87 @@
+package com.quarkus.rag.benchmark;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentParser;
+import dev.langchain4j.data.document.parser.TextDocumentParser;
+import dev.langchain4j.data.document.parser.apache.pdfbox.ApachePdfBoxDocumentParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Carrega o corpus de exemplo em {@code documents/} para os benchmarks.
+ *
+ * O diretório pode ser trocado com {@code -Drag.benchmark.corpus=/outro/caminho}.
+ */
+public final class BenchmarkCorpus {
+
+    public static final String CORPUS_PROPERTY = "rag.benchmark.corpus";
+    public static final String FILE_NAME = "file_name";
+
+    /**
+     * Perguntas de exemplo usadas nos benchmarks de consulta.
+     */
+    public static final List<String> SAMPLE_QUESTIONS = List.of(
+        "Quais produtos a TechNova oferece?",
+        "Os sistemas são personalizáveis para a minha empresa?",
+        "Como funciona o suporte técnico e quais são os canais de atendimento?",
+        "Quais planos de assinatura estão disponíveis e quanto custam?",
+        "Como a empresa protege os dados dos clientes?"
+    );
+
+    private BenchmarkCorpus() {
+    }
+
+    public static Path directory() {
+        return Paths.get(System.getProperty(CORPUS_PROPERTY, "documents"));
+    }
+
+    /**
+     * Lista os arquivos suportados (TXT e PDF), ignorando o README do diretório.
+     */
+    public static List<Path> files() {
+        try (Stream<Path> files = Files.list(directory())) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(path -> !path.getFileName().toString().equalsIgnoreCase("README.md"))
+                .filter(path -> isText(path) || isPdf(path))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corpus não encontrado em " + directory().toAbsolutePath(), e);
+        }
+    }
+
+    public static Document load(String fileName) {
+        return load(directory().resolve(fileName));
+    }
+
+    public static Document load(Path path) {
+        DocumentParser parser = isPdf(path) ? new ApachePdfBoxDocumentParser() : new TextDocumentParser();
+        try (InputStream is = Files.newInputStream(path)) {
+            Document document = parser.parse(is);
+            document.metadata().put(FILE_NAME, path.getFileName().toString());
+            return document;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler " + path, e);
+        }
+    }
+
+    public static List<Document> loadAll() {
+        return files().stream().map(BenchmarkCorpus::load).toList();
+    }
+
+    private static boolean isPdf(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".pdf");
+    }
+
+    private static boolean isText(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".txt");
+    }
+}
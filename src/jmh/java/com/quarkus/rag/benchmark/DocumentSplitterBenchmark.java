@@ -0,0 +1,58 @@
+package com.quarkus.rag.benchmark;
+
+import com.quarkus.rag.service.TextPreprocessingService;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split recursivo com os tamanhos configurados em application.properties
+ * (max-segment-size=700, max-overlap-size=200), aplicado ao texto já pré-processado,
+ * como faz o DocumentIngestionService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentSplitterBenchmark {
+
+    @Param({
+        "PerguntasFrequentes.txt",
+        "beccaria.pdf",
+        "catedral-TI.pdf"
+    })
+    public String fileName;
+
+    @Param("700")
+    public int maxSegmentSize;
+
+    @Param("200")
+    public int maxOverlapSize;
+
+    private Document document;
+    private DocumentSplitter splitter;
+
+    @Setup
+    public void setup() {
+        Document original = BenchmarkCorpus.load(fileName);
+        String preprocessed = new TextPreprocessingService().preprocessForEmbedding(original.text());
+        document = Document.from(preprocessed, original.metadata());
+        splitter = DocumentSplitters.recursive(maxSegmentSize, maxOverlapSize);
+    }
+
+    @Benchmark
+    public List<TextSegment> recursiveSplit() {
+        return splitter.split(document);
+    }
+}
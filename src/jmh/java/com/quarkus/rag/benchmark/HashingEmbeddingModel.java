@@ -0,0 +1,71 @@
+package com.quarkus.rag.benchmark;
+
+import com.quarkus.rag.service.TextPreprocessingService;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo de embeddings local e determinístico (feature hashing de termos e bigramas),
+ * usado nos benchmarks no lugar do OpenAI para permitir medições offline e reprodutíveis.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimension;
+    private final TextPreprocessingService preprocessing = new TextPreprocessingService();
+
+    public HashingEmbeddingModel(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+        for (TextSegment segment : textSegments) {
+            embeddings.add(Embedding.from(vectorize(segment.text())));
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    private float[] vectorize(String text) {
+        float[] vector = new float[dimension];
+        String normalized = preprocessing.preprocessForQuery(text);
+        String[] terms = normalized.isBlank() ? new String[0] : normalized.split(" ");
+
+        for (int i = 0; i < terms.length; i++) {
+            add(vector, terms[i], 1.0f);
+            if (i + 1 < terms.length) {
+                add(vector, terms[i] + "_" + terms[i + 1], 0.5f);
+            }
+        }
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float inverse = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= inverse;
+            }
+        }
+        return vector;
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        int hash = feature.hashCode();
+        int index = Math.floorMod(hash, dimension);
+        // Segundo hash para o sinal, reduzindo o viés das colisões
+        float sign = (Integer.rotateLeft(hash, 16) & 1) == 0 ? 1f : -1f;
+        vector[index] += sign * weight;
+    }
+}
@@ -0,0 +1,23 @@
+package com.quarkus.rag.benchmark;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pergunta de avaliação com os arquivos do corpus que contêm a resposta.
+ */
+public record LabeledQuery(String question, Set<String> relevantFiles) {
+
+    public static final List<LabeledQuery> CORPUS_QUERIES = List.of(
+        new LabeledQuery("Quais produtos a TechNova oferece e como funciona o suporte ao cliente?",
+            Set.of("PerguntasFrequentes.txt", "SuporteAtendimento.txt", "Sobre.txt")),
+        new LabeledQuery("Quais planos de assinatura existem e como os dados dos clientes são protegidos?",
+            Set.of("PlanosAssinaturas.txt", "Seguranca.txt")),
+        new LabeledQuery("A empresa investe em inovação e sustentabilidade?",
+            Set.of("InovacaoSustentabilidade.txt", "Sobre.txt")),
+        new LabeledQuery("Qual deve ser a proporção entre os delitos e as penas?",
+            Set.of("beccaria.pdf")),
+        new LabeledQuery("Como funciona o modelo bazar de desenvolvimento de software livre?",
+            Set.of("catedral-TI.pdf"))
+    );
+}
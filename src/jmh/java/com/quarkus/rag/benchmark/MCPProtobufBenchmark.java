@@ -0,0 +1,105 @@
+package com.quarkus.rag.benchmark;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.quarkus.rag.mcp.proto.MCPContext;
+import com.quarkus.rag.mcp.proto.TechnicalRequest;
+import com.quarkus.rag.mcp.proto.ValidateRequest;
+import com.quarkus.rag.service.TextPreprocessingService;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Custo de construção e (de)serialização das mensagens MCP trocadas pelo MCPOrchestrator,
+ * com um contexto equivalente ao de {@code maxResults} segmentos recuperados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MCPProtobufBenchmark {
+
+    @Param({"5", "20"})
+    public int maxResults;
+
+    private String sessionId;
+    private String question;
+    private String context;
+    private byte[] serializedTechnicalRequest;
+
+    @Setup
+    public void setup() {
+        sessionId = UUID.randomUUID().toString();
+        question = BenchmarkCorpus.SAMPLE_QUESTIONS.get(0);
+
+        TextPreprocessingService preprocessing = new TextPreprocessingService();
+        context = BenchmarkCorpus.loadAll().stream()
+            .map(document -> Document.from(preprocessing.preprocessForEmbedding(document.text())))
+            .flatMap(document -> DocumentSplitters.recursive(700, 200).split(document).stream())
+            .limit(maxResults)
+            .map(TextSegment::text)
+            .collect(Collectors.joining("\n\n"));
+
+        serializedTechnicalRequest = buildTechnicalRequest().toByteArray();
+    }
+
+    @Benchmark
+    public MCPContext buildContext() {
+        return createMCPContext();
+    }
+
+    @Benchmark
+    public TechnicalRequest buildTechnicalRequest() {
+        return TechnicalRequest.newBuilder()
+            .setContext(createMCPContext())
+            .setQuestion(question)
+            .setContextContent(context)
+            .setPreviousAnalysis("")
+            .build();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeTechnicalRequest() {
+        return buildTechnicalRequest().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeValidateRequest() {
+        return ValidateRequest.newBuilder()
+            .setContext(createMCPContext())
+            .setAnswer(question)
+            .setOriginalContext(context)
+            .setQuestion(question)
+            .build()
+            .toByteArray();
+    }
+
+    @Benchmark
+    public TechnicalRequest parseTechnicalRequest() throws InvalidProtocolBufferException {
+        return TechnicalRequest.parseFrom(serializedTechnicalRequest);
+    }
+
+    /**
+     * Mesmo formato de MCPOrchestrator.createMCPContext.
+     */
+    private MCPContext createMCPContext() {
+        return MCPContext.newBuilder()
+            .setSessionId(sessionId)
+            .setAgentId("orchestrator")
+            .setTimestamp(System.currentTimeMillis())
+            .putMetadata("protocol", "MCP-gRPC")
+            .putMetadata("version", "1.0")
+            .build();
+    }
+}
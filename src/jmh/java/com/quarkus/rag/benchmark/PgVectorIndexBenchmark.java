@@ -0,0 +1,178 @@
+package com.quarkus.rag.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência da busca por similaridade no pgvector com e sem índice HNSW, em uma tabela
+ * sintética de {@code rows} vetores (padrão 100k × 1536).
+ *
+ * Requer o Postgres do docker-compose ({@code docker compose up -d}); a conexão pode ser trocada com
+ * {@code -Drag.benchmark.jdbc-url}, {@code -Drag.benchmark.jdbc-user} e {@code -Drag.benchmark.jdbc-password}.
+ * A tabela {@code bench_embeddings} é criada e populada apenas quando o número de linhas difere.
+ *
+ * Mede só a busca sem filtro. Com um {@code WHERE} seletivo o HNSW continua devolvendo no máximo
+ * {@code ef_search} vizinhos globais e o filtro é aplicado depois, então a latência aqui não vale para
+ * buscas filtradas: a aplicação as executa com busca exata ({@code documentIds}) ou com
+ * {@code iterative_scan}/{@code ef_search} maior (ver {@code VectorIndexService.filteredTuning}).
+ *
+ * Exemplo: {@code mvn -Pbenchmark package exec:exec -Djmh.includes=PgVectorIndexBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PgVectorIndexBenchmark {
+
+    private static final String TABLE = "bench_embeddings";
+    private static final int QUERIES = 100;
+
+    @Param("100000")
+    public int rows;
+
+    @Param("1536")
+    public int dimension;
+
+    @Param({"40", "100"})
+    public int efSearch;
+
+    private Connection connection;
+    private List<String> queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getProperty("rag.benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/ragdb"),
+            System.getProperty("rag.benchmark.jdbc-user", "postgres"),
+            System.getProperty("rag.benchmark.jdbc-password", "postgres"));
+
+        execute("CREATE EXTENSION IF NOT EXISTS vector");
+        if (countRows() != rows) {
+            seed();
+        }
+
+        Random random = new Random(7);
+        queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(randomVector(random));
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int exactScan() throws SQLException {
+        execute("SET LOCAL enable_indexscan = off");
+        execute("SET LOCAL enable_bitmapscan = off");
+        return topK();
+    }
+
+    @Benchmark
+    public int hnswIndex() throws SQLException {
+        execute("SET LOCAL hnsw.ef_search = " + efSearch);
+        return topK();
+    }
+
+    private int topK() throws SQLException {
+        int found = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id FROM " + TABLE + " ORDER BY embedding <=> ?::vector LIMIT 5")) {
+            statement.setString(1, queries.get(next++ % queries.size()));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    found++;
+                }
+            }
+        }
+        connection.commit();
+        return found;
+    }
+
+    private void seed() throws SQLException {
+        System.out.printf("%nSeeding %s with %d vectors of dimension %d...%n", TABLE, rows, dimension);
+        execute("DROP TABLE IF EXISTS " + TABLE);
+        execute("CREATE TABLE " + TABLE + " (id bigint PRIMARY KEY, embedding vector(" + dimension + "))");
+
+        CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+        Random random = new Random(42);
+        int batch = 2_000;
+        for (int start = 0; start < rows; start += batch) {
+            StringBuilder lines = new StringBuilder();
+            for (int id = start; id < Math.min(rows, start + batch); id++) {
+                lines.append(id).append('\t').append(randomVector(random)).append('\n');
+            }
+            try {
+                copy.copyIn("COPY " + TABLE + " (id, embedding) FROM STDIN", new StringReader(lines.toString()));
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+        }
+
+        execute("SET maintenance_work_mem = '1GB'");
+        execute("CREATE INDEX ON " + TABLE + " USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 64)");
+        execute("ANALYZE " + TABLE);
+    }
+
+    private long countRows() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT to_regclass('" + TABLE + "') IS NOT NULL")) {
+            if (!rs.next() || !rs.getBoolean(1)) {
+                return -1;
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + TABLE)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private String randomVector(Random random) {
+        StringBuilder vector = new StringBuilder(dimension * 10).append('[');
+        for (int i = 0; i < dimension; i++) {
+            if (i > 0) {
+                vector.append(',');
+            }
+            vector.append((float) random.nextGaussian());
+        }
+        return vector.append(']').toString();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.quarkus.rag.benchmark;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latência e recall da busca com índice quantizado ({@code halfvec} e {@code binary}) seguida de
+ * reordenação exata, comparada ao índice HNSW de precisão total e à busca exata, sobre o corpus de documents/.
+ *
+ * Os vetores vêm do {@link HashingEmbeddingModel} e cada segmento é replicado {@code replicas} vezes com
+ * ruído determinístico para simular um corpus maior. Recall@k (contra a busca exata) e tamanho de cada
+ * índice são impressos uma vez por trial como {@code [quality]}.
+ *
+ * Requer o Postgres do docker-compose (pgvector 0.7+); mesma configuração de conexão do
+ * {@link PgVectorIndexBenchmark}.
+ *
+ * Exemplo: {@code mvn -Pbenchmark package exec:exec -Djmh.includes=QuantizedSearchBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class QuantizedSearchBenchmark {
+
+    private static final String TABLE = "bench_quantized_embeddings";
+    private static final int DIMENSION = 1536;
+    private static final int EF_SEARCH = 100;
+
+    @Param({"exact", "vector", "halfvec", "binary"})
+    public String mode;
+
+    @Param("20")
+    public int replicas;
+
+    @Param("5")
+    public int maxResults;
+
+    @Param("4")
+    public int rescoreMultiplier;
+
+    private Connection connection;
+    private List<String> queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getProperty("rag.benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/ragdb"),
+            System.getProperty("rag.benchmark.jdbc-user", "postgres"),
+            System.getProperty("rag.benchmark.jdbc-password", "postgres"));
+
+        HashingEmbeddingModel embeddingModel = new HashingEmbeddingModel(DIMENSION);
+        List<TextSegment> segments = BenchmarkCorpus.loadAll().stream()
+            .flatMap(document -> DocumentSplitters.recursive(700, 200).split(Document.from(document.text())).stream())
+            .toList();
+
+        execute("CREATE EXTENSION IF NOT EXISTS vector");
+        if (countRows() != (long) segments.size() * replicas) {
+            seed(embeddingModel.embedAll(segments).content());
+        }
+
+        queries = Stream.concat(
+                LabeledQuery.CORPUS_QUERIES.stream().map(LabeledQuery::question),
+                BenchmarkCorpus.SAMPLE_QUESTIONS.stream())
+            .map(question -> toLiteral(embeddingModel.embed(question).content().vector()))
+            .toList();
+
+        connection.setAutoCommit(false);
+        reportQuality();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int search() throws SQLException {
+        return topK(mode, queries.get(next++ % queries.size())).size();
+    }
+
+    private Set<Long> topK(String searchMode, String query) throws SQLException {
+        if ("exact".equals(searchMode)) {
+            execute("SET LOCAL enable_indexscan = off");
+            execute("SET LOCAL enable_bitmapscan = off");
+        } else {
+            execute("SET LOCAL hnsw.ef_search = " + Math.max(EF_SEARCH, maxResults * rescoreMultiplier));
+        }
+
+        String sql = switch (searchMode) {
+            case "halfvec" -> rescoreSql("embedding::halfvec(" + DIMENSION + ") <=> ?::halfvec(" + DIMENSION + ")");
+            case "binary" -> rescoreSql("binary_quantize(embedding)::bit(" + DIMENSION + ") <~> binary_quantize(?::vector)");
+            default -> "SELECT id FROM " + TABLE + " ORDER BY embedding <=> ?::vector LIMIT ?";
+        };
+
+        boolean rescoring = "halfvec".equals(searchMode) || "binary".equals(searchMode);
+        Set<Long> ids = new LinkedHashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (rescoring) {
+                statement.setString(index++, query);
+                statement.setInt(index++, maxResults * rescoreMultiplier);
+            }
+            statement.setString(index++, query);
+            statement.setInt(index, maxResults);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        connection.commit();
+        return ids;
+    }
+
+    private static String rescoreSql(String quantizedDistance) {
+        return "SELECT id FROM (SELECT id, embedding FROM " + TABLE + " ORDER BY " + quantizedDistance
+            + " LIMIT ?) candidates ORDER BY embedding <=> ?::vector LIMIT ?";
+    }
+
+    private void reportQuality() throws SQLException {
+        List<Set<Long>> exact = new ArrayList<>();
+        for (String query : queries) {
+            exact.add(topK("exact", query));
+        }
+        double recall = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            Set<Long> found = new LinkedHashSet<>(topK(mode, queries.get(i)));
+            found.retainAll(exact.get(i));
+            recall += exact.get(i).isEmpty() ? 1.0 : (double) found.size() / exact.get(i).size();
+        }
+        System.out.printf("%n[quality] mode=%s rows=%d recall@%d=%.3f indexSize=%s%n",
+            mode, countRows(), maxResults, recall / queries.size(), indexSize(mode));
+        connection.commit();
+    }
+
+    private String indexSize(String searchMode) throws SQLException {
+        if ("exact".equals(searchMode)) {
+            return "-";
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SELECT pg_size_pretty(pg_relation_size('" + TABLE + "_" + searchMode + "_idx'))")) {
+            return rs.next() ? rs.getString(1) : "-";
+        }
+    }
+
+    private void seed(List<Embedding> embeddings) throws SQLException {
+        System.out.printf("%nSeeding %s with %d segments x %d replicas...%n", TABLE, embeddings.size(), replicas);
+        execute("DROP TABLE IF EXISTS " + TABLE);
+        execute("CREATE TABLE " + TABLE + " (id bigint PRIMARY KEY, embedding vector(" + DIMENSION + "))");
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + TABLE + " (id, embedding) VALUES (?, ?::vector)")) {
+            long id = 0;
+            for (int replica = 0; replica < replicas; replica++) {
+                for (Embedding embedding : embeddings) {
+                    insert.setLong(1, id);
+                    insert.setString(2, toLiteral(perturb(embedding.vector(), replica, id)));
+                    insert.addBatch();
+                    id++;
+                }
+                insert.executeBatch();
+            }
+        }
+
+        execute("SET maintenance_work_mem = '1GB'");
+        execute("CREATE INDEX " + TABLE + "_vector_idx ON " + TABLE
+            + " USING hnsw (embedding vector_cosine_ops)");
+        execute("CREATE INDEX " + TABLE + "_halfvec_idx ON " + TABLE
+            + " USING hnsw ((embedding::halfvec(" + DIMENSION + ")) halfvec_cosine_ops)");
+        execute("CREATE INDEX " + TABLE + "_binary_idx ON " + TABLE
+            + " USING hnsw ((binary_quantize(embedding)::bit(" + DIMENSION + ")) bit_hamming_ops)");
+        execute("ANALYZE " + TABLE);
+    }
+
+    /**
+     * Réplicas próximas, mas distintas, do segmento original (a réplica 0 é o próprio vetor).
+     */
+    private static float[] perturb(float[] vector, int replica, long seed) {
+        if (replica == 0) {
+            return vector;
+        }
+        Random random = new Random(seed);
+        float[] copy = vector.clone();
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] += (float) (random.nextGaussian() * 0.01);
+        }
+        return copy;
+    }
+
+    private long countRows() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT to_regclass('" + TABLE + "') IS NOT NULL")) {
+            if (!rs.next() || !rs.getBoolean(1)) {
+                return -1;
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + TABLE)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private static String toLiteral(float[] vector) {
+        StringBuilder literal = new StringBuilder(vector.length * 10).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(vector[i]);
+        }
+        return literal.append(']').toString();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
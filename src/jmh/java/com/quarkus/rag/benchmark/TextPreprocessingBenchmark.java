@@ -0,0 +1,57 @@
+package com.quarkus.rag.benchmark;
+
+import com.quarkus.rag.service.TextPreprocessingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do pré-processamento (UTF-8, limpeza, Lucene) sobre os documentos do corpus
+ * e sobre perguntas típicas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextPreprocessingBenchmark {
+
+    @Param({
+        "PerguntasFrequentes.txt",
+        "Sobre.txt",
+        "beccaria.pdf",
+        "catedral-TI.pdf"
+    })
+    public String fileName;
+
+    private TextPreprocessingService service;
+    private String documentText;
+    private List<String> questions;
+
+    @Setup
+    public void setup() {
+        service = new TextPreprocessingService();
+        documentText = BenchmarkCorpus.load(fileName).text();
+        questions = BenchmarkCorpus.SAMPLE_QUESTIONS;
+    }
+
+    @Benchmark
+    public String preprocessForEmbedding() {
+        return service.preprocessForEmbedding(documentText);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void preprocessForQuery(Blackhole blackhole) {
+        for (String question : questions) {
+            blackhole.consume(service.preprocessForQuery(question));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.benchmark.BenchmarkCorpus;
+import com.quarkus.rag.benchmark.HashingEmbeddingModel;
+import com.quarkus.rag.benchmark.LabeledQuery;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência do estágio pós-retrieval (re-ranking lexical e MMR) e qualidade do contexto
+ * resultante: recall de arquivos relevantes por token de prompt.
+ *
+ * Usa o {@link HashingEmbeddingModel} e um InMemoryEmbeddingStore com o corpus de documents/.
+ * As métricas de qualidade são determinísticas e impressas uma vez por trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RetrievalRefinementBenchmark {
+
+    private static final int DIMENSION = 1536;
+
+    @Param({"plain", "mmr", "lexical", "lexical+mmr"})
+    public String mode;
+
+    @Param("5")
+    public int maxResults;
+
+    private RetrievalService retrievalService;
+    private TokenCounter tokenCounter;
+    private InMemoryEmbeddingStore<TextSegment> store;
+    private List<Embedding> queryEmbeddings;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HashingEmbeddingModel embeddingModel = new HashingEmbeddingModel(DIMENSION);
+        TextPreprocessingService preprocessing = new TextPreprocessingService();
+
+        List<TextSegment> segments = BenchmarkCorpus.loadAll().stream()
+            .map(document -> Document.from(preprocessing.preprocessForEmbedding(document.text()), document.metadata()))
+            .flatMap(document -> DocumentSplitters.recursive(700, 200).split(document).stream())
+            .toList();
+        store = new InMemoryEmbeddingStore<>();
+        store.addAll(embeddingModel.embedAll(segments).content(), segments);
+
+        queryEmbeddings = LabeledQuery.CORPUS_QUERIES.stream()
+            .map(query -> embeddingModel.embed(query.question()).content())
+            .toList();
+
+        LexicalReranker lexicalReranker = new LexicalReranker();
+        lexicalReranker.textPreprocessingService = preprocessing;
+        lexicalReranker.vectorWeight = 0.5;
+
+        retrievalService = new RetrievalService();
+        retrievalService.mmrEnabled = mode.contains("mmr");
+        retrievalService.mmrLambda = 0.7;
+        retrievalService.candidateMultiplier = 4;
+        retrievalService.reranker = mode.startsWith("lexical") ? lexicalReranker : null;
+
+        tokenCounter = new TokenCounter();
+        tokenCounter.modelName = "gpt-4o-mini";
+        tokenCounter.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void reportQuality() {
+        int found = 0;
+        int expected = 0;
+        long promptTokens = 0;
+
+        for (int i = 0; i < LabeledQuery.CORPUS_QUERIES.size(); i++) {
+            LabeledQuery query = LabeledQuery.CORPUS_QUERIES.get(i);
+            List<EmbeddingMatch<TextSegment>> result = select(i);
+
+            Set<String> files = new HashSet<>();
+            for (EmbeddingMatch<TextSegment> match : result) {
+                files.add(match.embedded().metadata().getString(BenchmarkCorpus.FILE_NAME));
+            }
+            files.retainAll(query.relevantFiles());
+            found += files.size();
+            expected += query.relevantFiles().size();
+            promptTokens += tokenCounter.count(String.join("\n\n", retrievalService.extractTexts(result)));
+        }
+
+        double recall = expected == 0 ? 0 : (double) found / expected;
+        System.out.printf("%n[quality] mode=%s maxResults=%d recall=%.3f promptTokens=%d recallPer1kTokens=%.4f%n",
+            mode, maxResults, recall, promptTokens, promptTokens == 0 ? 0 : recall * 1000 / promptTokens);
+    }
+
+    @Benchmark
+    public List<EmbeddingMatch<TextSegment>> retrieveAndRefine() {
+        int index = next++ % queryEmbeddings.size();
+        return select(index);
+    }
+
+    private List<EmbeddingMatch<TextSegment>> select(int index) {
+        int candidates = retrievalService.isRefining() ? maxResults * retrievalService.candidateMultiplier : maxResults;
+        List<EmbeddingMatch<TextSegment>> matches = store.findRelevant(queryEmbeddings.get(index), candidates, 0.0);
+        if (!retrievalService.isRefining()) {
+            return matches;
+        }
+        return retrievalService.refine(LabeledQuery.CORPUS_QUERIES.get(index).question(), matches, maxResults);
+    }
+}
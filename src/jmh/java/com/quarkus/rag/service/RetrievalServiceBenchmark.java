@@ -0,0 +1,68 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.benchmark.BenchmarkCorpus;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do resultado da busca: extração dos textos dos matches (RetrievalService)
+ * e concatenação do contexto como fazem os orquestradores.
+ *
+ * Fica no pacote do serviço para acessar o método package-private de extração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RetrievalServiceBenchmark {
+
+    private static final int DIMENSION = 1536;
+
+    @Param({"5", "20", "100"})
+    public int maxResults;
+
+    private RetrievalService retrievalService;
+    private List<EmbeddingMatch<TextSegment>> matches;
+
+    @Setup
+    public void setup() {
+        retrievalService = new RetrievalService();
+
+        TextPreprocessingService preprocessing = new TextPreprocessingService();
+        List<TextSegment> segments = BenchmarkCorpus.loadAll().stream()
+            .map(document -> Document.from(preprocessing.preprocessForEmbedding(document.text()), document.metadata()))
+            .flatMap(document -> DocumentSplitters.recursive(700, 200).split(document).stream())
+            .toList();
+
+        matches = new ArrayList<>(maxResults);
+        Embedding embedding = Embedding.from(new float[DIMENSION]);
+        for (int i = 0; i < maxResults; i++) {
+            TextSegment segment = segments.get(i % segments.size());
+            matches.add(new EmbeddingMatch<>(1.0 - i * 0.001, String.valueOf(i), embedding, segment));
+        }
+    }
+
+    @Benchmark
+    public List<String> extractTexts() {
+        return retrievalService.extractTexts(matches);
+    }
+
+    @Benchmark
+    public String extractAndJoinContext() {
+        return String.join("\n\n", retrievalService.extractTexts(matches));
+    }
+}
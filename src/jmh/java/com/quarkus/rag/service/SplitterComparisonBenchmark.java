@@ -0,0 +1,129 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.benchmark.BenchmarkCorpus;
+import com.quarkus.rag.benchmark.HashingEmbeddingModel;
+import com.quarkus.rag.benchmark.LabeledQuery;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o split recursivo por caracteres (700/200, o padrão) com o {@link TokenAwareSplitter}
+ * nos modos {@code token} e {@code semantic}, sobre o corpus de documents/.
+ *
+ * A latência medida é a do split do corpus inteiro (incluindo o pré-processamento, que no modo por
+ * tokens acontece dentro do split). Uma vez por trial são impressos como {@code [quality]}: número de
+ * segmentos, tokens embedados (custo de embedding, a {@code rag.benchmark.embedding-price-per-1m}
+ * dólares por milhão), dispersão de tokens por segmento e recall de arquivos relevantes no top-k com o
+ * {@link HashingEmbeddingModel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SplitterComparisonBenchmark {
+
+    private static final int DIMENSION = 1536;
+
+    @Param({"recursive", "token", "semantic"})
+    public String splitter;
+
+    @Param("200")
+    public int maxTokens;
+
+    @Param("30")
+    public int overlapTokens;
+
+    @Param("5")
+    public int maxResults;
+
+    private List<Document> corpus;
+    private TextPreprocessingService preprocessing;
+    private TokenCounter tokenCounter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        corpus = BenchmarkCorpus.loadAll();
+        preprocessing = new TextPreprocessingService();
+        tokenCounter = new TokenCounter();
+        tokenCounter.modelName = "gpt-4o-mini";
+        tokenCounter.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void reportQuality() {
+        List<TextSegment> segments = splitCorpus();
+
+        List<Integer> tokens = segments.stream().map(segment -> tokenCounter.count(segment.text())).toList();
+        long embeddedTokens = tokens.stream().mapToLong(Integer::longValue).sum();
+        double mean = segments.isEmpty() ? 0 : (double) embeddedTokens / segments.size();
+        double variance = tokens.stream().mapToDouble(count -> (count - mean) * (count - mean)).sum()
+            / Math.max(1, tokens.size() - 1);
+        int maxSegment = tokens.stream().mapToInt(Integer::intValue).max().orElse(0);
+        double pricePerMillion = Double.parseDouble(System.getProperty("rag.benchmark.embedding-price-per-1m", "0.02"));
+
+        HashingEmbeddingModel embeddingModel = new HashingEmbeddingModel(DIMENSION);
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        store.addAll(embeddingModel.embedAll(segments).content(), segments);
+
+        int found = 0;
+        int expected = 0;
+        for (LabeledQuery query : LabeledQuery.CORPUS_QUERIES) {
+            List<EmbeddingMatch<TextSegment>> matches = store.findRelevant(
+                embeddingModel.embed(query.question()).content(), maxResults, 0.0);
+            Set<String> files = new HashSet<>();
+            for (EmbeddingMatch<TextSegment> match : matches) {
+                files.add(match.embedded().metadata().getString(BenchmarkCorpus.FILE_NAME));
+            }
+            files.retainAll(query.relevantFiles());
+            found += files.size();
+            expected += query.relevantFiles().size();
+        }
+
+        System.out.printf("%n[quality] splitter=%s segments=%d embeddedTokens=%d costUsd=%.6f tokensPerSegment=%.1f"
+                + " cv=%.3f maxSegmentTokens=%d recall@%d=%.3f%n",
+            splitter, segments.size(), embeddedTokens, embeddedTokens * pricePerMillion / 1_000_000, mean,
+            mean == 0 ? 0 : Math.sqrt(variance) / mean, maxSegment, maxResults,
+            expected == 0 ? 0 : (double) found / expected);
+    }
+
+    @Benchmark
+    public List<TextSegment> splitCorpus() {
+        List<TextSegment> segments = new ArrayList<>();
+        for (Document document : corpus) {
+            segments.addAll(split(document));
+        }
+        return segments;
+    }
+
+    private List<TextSegment> split(Document document) {
+        if (DocumentIngestionService.SPLITTER_RECURSIVE.equals(splitter)) {
+            // Mesmo fluxo do DocumentIngestionService: pré-processa o texto inteiro e divide por caracteres
+            Document processed = Document.from(preprocessing.preprocessForEmbedding(document.text()),
+                document.metadata());
+            return DocumentSplitters.recursive(700, 200).split(processed);
+        }
+        DocumentSplitter tokenSplitter = new TokenAwareSplitter(tokenCounter::count,
+            preprocessing::preprocessForEmbedding, maxTokens, overlapTokens,
+            DocumentIngestionService.SPLITTER_SEMANTIC.equals(splitter));
+        return tokenSplitter.split(document);
+    }
+}
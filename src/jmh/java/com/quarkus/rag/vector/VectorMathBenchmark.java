@@ -0,0 +1,93 @@
+package com.quarkus.rag.vector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kernels escalares x SIMD ({@code jdk.incubator.vector}) em vetores de 1536 dimensões:
+ * produto escalar, cosseno, top-k sobre uma matriz contígua (a atualização de similaridades do MMR)
+ * e produto escalar int8.
+ *
+ * Exemplo: {@code mvn -Pbenchmark package exec:exec -Djmh.includes=VectorMathBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorMathBenchmark {
+
+    @Param({"scalar", "simd"})
+    public String kernels;
+
+    @Param("1536")
+    public int dimension;
+
+    // Linhas da matriz no top-k (candidatos do MMR com over-fetch alto)
+    @Param("80")
+    public int rows;
+
+    // O MMR pede a similaridade de todas as linhas com o candidato escolhido
+    @Param("80")
+    public int k;
+
+    private SimilarityKernels implementation;
+    private float[] a;
+    private float[] b;
+    private float[] matrix;
+    private byte[] a8;
+    private byte[] b8;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        implementation = "simd".equals(kernels) ? VectorMath.simdKernels() : new ScalarKernels();
+
+        Random random = new Random(42);
+        a = randomVector(random);
+        b = randomVector(random);
+        matrix = new float[rows * dimension];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(VectorMath.normalize(randomVector(random)), 0, matrix, row * dimension, dimension);
+        }
+        a8 = Int8Vector.quantize(a).values();
+        b8 = Int8Vector.quantize(b).values();
+    }
+
+    @Benchmark
+    public float dot() {
+        return implementation.dot(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public float cosine() {
+        return implementation.cosine(a, b);
+    }
+
+    @Benchmark
+    public int dotInt8() {
+        return implementation.dotInt8(a8, b8);
+    }
+
+    @Benchmark
+    public TopK topK() {
+        return VectorMath.topK(implementation, matrix, dimension, a, k);
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
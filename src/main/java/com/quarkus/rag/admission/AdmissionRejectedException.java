@@ -0,0 +1,24 @@
+package com.quarkus.rag.admission;
+
+/**
+ * Chamada LLM recusada pelo controle de admissão (fila cheia ou tempo de espera esgotado).
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String model;
+    private final Priority priority;
+
+    public AdmissionRejectedException(String model, Priority priority, String reason) {
+        super("LLM call rejected for model " + model + " (" + priority.name().toLowerCase() + "): " + reason);
+        this.model = model;
+        this.priority = priority;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,180 @@
+package com.quarkus.rag.admission;
+
+import com.quarkus.rag.metrics.PipelineMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Controle de admissão das chamadas aos AI services, por modelo.
+ *
+ * Antes de cada chamada: token bucket (requisições/s) e vaga no limite de concorrência adaptativo,
+ * respeitando a prioridade da thread ({@link #withPriority}). Quem não consegue entrar dentro de
+ * {@code rag.admission.queue-timeout.<prioridade>} recebe {@link AdmissionRejectedException}
+ * na hora, em vez de acumular atrás de retries do provedor.
+ */
+@ApplicationScoped
+public class LlmAdmissionController {
+
+    private static final Logger LOG = Logger.getLogger(LlmAdmissionController.class);
+
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = new ThreadLocal<>();
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @ConfigProperty(name = "rag.admission.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "rag.admission.initial-concurrency", defaultValue = "8")
+    int initialConcurrency;
+
+    @ConfigProperty(name = "rag.admission.min-concurrency", defaultValue = "1")
+    int minConcurrency;
+
+    @ConfigProperty(name = "rag.admission.max-concurrency", defaultValue = "32")
+    int maxConcurrency;
+
+    // Fator aplicado ao limite quando o provedor sinaliza sobrecarga (429/timeout)
+    @ConfigProperty(name = "rag.admission.backoff-ratio", defaultValue = "0.7")
+    double backoffRatio;
+
+    // Fração do limite que chamadas BATCH podem ocupar
+    @ConfigProperty(name = "rag.admission.batch-share", defaultValue = "0.5")
+    double batchShare;
+
+    @ConfigProperty(name = "rag.admission.max-queue", defaultValue = "100")
+    int maxQueue;
+
+    @ConfigProperty(name = "rag.admission.queue-timeout.interactive", defaultValue = "10s")
+    Duration interactiveQueueTimeout;
+
+    @ConfigProperty(name = "rag.admission.queue-timeout.batch", defaultValue = "60s")
+    Duration batchQueueTimeout;
+
+    // 0 = sem limite de taxa
+    @ConfigProperty(name = "rag.admission.rate-limit.requests-per-second", defaultValue = "0")
+    double requestsPerSecond;
+
+    @ConfigProperty(name = "rag.admission.rate-limit.burst", defaultValue = "10")
+    int burst;
+
+    private final ConcurrentMap<String, ModelLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Executa o bloco com a prioridade informada para as chamadas LLM feitas na thread corrente.
+     */
+    public <T> T withPriority(Priority priority, Supplier<T> block) {
+        Priority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            return block.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_PRIORITY.remove();
+            } else {
+                CURRENT_PRIORITY.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Captura a prioridade da thread atual para o bloco executado em outra thread.
+     */
+    public <T> Supplier<T> propagating(Supplier<T> block) {
+        Priority priority = currentPriority();
+        return () -> withPriority(priority, block);
+    }
+
+    public Priority currentPriority() {
+        Priority priority = CURRENT_PRIORITY.get();
+        return priority != null ? priority : Priority.INTERACTIVE;
+    }
+
+    public <T> T execute(String model, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        Priority priority = currentPriority();
+        ModelLimiter limiter = limiters.computeIfAbsent(model, this::createLimiter);
+        long start = System.nanoTime();
+        long timeout = (priority == Priority.BATCH ? batchQueueTimeout : interactiveQueueTimeout).toNanos();
+
+        try {
+            long tokenWait = limiter.reserveToken(timeout);
+            if (tokenWait < 0) {
+                throw reject(model, priority, "rate limit");
+            }
+            if (tokenWait > 0) {
+                TimeUnit.NANOSECONDS.sleep(tokenWait);
+            }
+            String refusal = limiter.acquire(priority, timeout - (System.nanoTime() - start));
+            if (refusal != null) {
+                throw reject(model, priority, refusal);
+            }
+        } catch (InterruptedException e) {
+            // Tentativa cancelada (ex.: hedge perdedor ou prazo vencido), não é recusa de admissão
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Admission wait for model " + model + " interrupted");
+        }
+        metrics.recordAdmissionWait(model, priority.name().toLowerCase(Locale.ROOT), System.nanoTime() - start);
+
+        boolean overloaded = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            overloaded = isOverload(e);
+            if (overloaded) {
+                LOG.warnf("[Admission] Provider overload for model %s, reducing concurrency limit", model);
+            }
+            throw e;
+        } finally {
+            limiter.release(overloaded);
+        }
+    }
+
+    private ModelLimiter createLimiter(String model) {
+        ModelLimiter limiter = new ModelLimiter(initialConcurrency, minConcurrency, maxConcurrency, backoffRatio,
+            batchShare, maxQueue, new TokenBucket(requestsPerSecond, burst));
+        metrics.registerGauge("rag.admission.limit", limiter, ModelLimiter::limit, "model", model);
+        metrics.registerGauge("rag.admission.in_flight", limiter, ModelLimiter::inFlight, "model", model);
+        metrics.registerGauge("rag.admission.queued", limiter, ModelLimiter::queued, "model", model);
+        return limiter;
+    }
+
+    private AdmissionRejectedException reject(String model, Priority priority, String reason) {
+        metrics.recordAdmissionRejection(model, priority.name().toLowerCase(Locale.ROOT), reason);
+        return new AdmissionRejectedException(model, priority, reason);
+    }
+
+    /**
+     * 429 (rate limit) e timeouts do provedor indicam que a concorrência atual é alta demais.
+     */
+    static boolean isOverload(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof SocketTimeoutException || current instanceof TimeoutException) {
+                return true;
+            }
+            String message = current.getMessage();
+            if (message != null) {
+                String lower = message.toLowerCase(Locale.ROOT);
+                if (lower.contains("429") || lower.contains("rate limit") || lower.contains("too many requests")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,143 @@
+package com.quarkus.rag.admission;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de concorrência adaptativo (AIMD) de um modelo, com fila por prioridade.
+ *
+ * - Cada sucesso aumenta o limite em {@code 1/limite} (≈ +1 por janela de chamadas)
+ * - Sobrecarga do provedor (HTTP 429, timeout) multiplica o limite por {@code backoffRatio}
+ * - INTERACTIVE sempre passa antes de BATCH; BATCH usa no máximo {@code batchShare} do limite
+ */
+final class ModelLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double batchShare;
+    private final int maxQueue;
+    private final TokenBucket tokenBucket;
+
+    private double limit;
+    private int inFlight;
+    private int waitingInteractive;
+    private int waitingBatch;
+
+    ModelLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double batchShare,
+                 int maxQueue, TokenBucket tokenBucket) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.batchShare = batchShare;
+        this.maxQueue = maxQueue;
+        this.tokenBucket = tokenBucket;
+    }
+
+    /**
+     * Aguarda uma vaga até {@code timeoutNanos}; falha imediatamente se a fila da prioridade estiver cheia.
+     *
+     * @return null se admitido, ou o motivo da recusa
+     */
+    String acquire(Priority priority, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        lock.lock();
+        try {
+            if (waiting(priority) >= maxQueue) {
+                return "queue full";
+            }
+            adjustWaiting(priority, 1);
+            try {
+                while (!canAdmit(priority)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return "queue timeout";
+                    }
+                    released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return null;
+            } finally {
+                adjustWaiting(priority, -1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @see TokenBucket#reserve(long)
+     */
+    long reserveToken(long maxWaitNanos) {
+        return tokenBucket.reserve(maxWaitNanos);
+    }
+
+    void release(boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (overloaded) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return waitingInteractive + waitingBatch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAdmit(Priority priority) {
+        int currentLimit = (int) limit;
+        if (inFlight >= currentLimit) {
+            return false;
+        }
+        if (priority == Priority.BATCH) {
+            return waitingInteractive == 0 && inFlight < Math.max(1, (int) (currentLimit * batchShare));
+        }
+        return true;
+    }
+
+    private int waiting(Priority priority) {
+        return priority == Priority.BATCH ? waitingBatch : waitingInteractive;
+    }
+
+    private void adjustWaiting(Priority priority, int delta) {
+        if (priority == Priority.BATCH) {
+            waitingBatch += delta;
+        } else {
+            waitingInteractive += delta;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.quarkus.rag.admission;
+
+/**
+ * Classe de prioridade das chamadas LLM: tráfego interativo (chat, agentes, MCP) passa na frente
+ * de execuções em lote (benchmark, comparações repetidas).
+ */
+public enum Priority {
+    INTERACTIVE,
+    BATCH
+}
@@ -0,0 +1,48 @@
+package com.quarkus.rag.admission;
+
+/**
+ * Token bucket por reserva: quem não encontra token recebe o tempo até o próximo e espera fora
+ * do lock. Com {@code ratePerSecond <= 0} o limite fica desativado.
+ */
+final class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    boolean isEnabled() {
+        return ratePerNano > 0;
+    }
+
+    /**
+     * Reserva um token e devolve quantos nanos esperar por ele, ou -1 se a espera passaria de
+     * {@code maxWaitNanos} (nesse caso nada é reservado).
+     */
+    synchronized long reserve(long maxWaitNanos) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long wait = (long) Math.ceil((1 - tokens) / ratePerNano);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+}
@@ -3,10 +3,14 @@ package com.quarkus.rag.ai;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import io.quarkiverse.langchain4j.RegisterAiService;
-import jakarta.enterprise.context.SessionScoped;
+import jakarta.enterprise.context.ApplicationScoped;
 
-@RegisterAiService
-@SessionScoped
+/**
+ * Chat RAG. O histórico da conversa não fica em memória do AI service: vem da
+ * {@link com.quarkus.rag.memory.ConversationMemory}, já compactado e dentro do orçamento de tokens.
+ */
+@RegisterAiService(chatMemoryProviderSupplier = RegisterAiService.NoChatMemoryProviderSupplier.class)
+@ApplicationScoped
 public interface ChatService {
 
     @SystemMessage("""
@@ -21,5 +25,22 @@ public interface ChatService {
         Pergunta: {question}
         """)
     String chat(String context, String question);
+
+    @SystemMessage("""
+        Você é um assistente útil que responde perguntas baseado no contexto fornecido.
+        Use apenas as informações do contexto para responder.
+        Se a resposta não estiver no contexto, diga que não sabe.
+        Use o histórico apenas para entender a que a pergunta se refere.
+        """)
+    @UserMessage("""
+        Histórico da conversa:
+        {history}
+
+        Contexto:
+        {context}
+
+        Pergunta: {question}
+        """)
+    String chatWithHistory(String history, String context, String question);
 }
 
@@ -0,0 +1,30 @@
+package com.quarkus.rag.ai;
+
+import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
+import io.quarkiverse.langchain4j.RegisterAiService;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Compacta os turnos antigos de uma conversa num resumo curto, usado como histórico do chat.
+ * Chamado fora de requisições (thread de compactação), por isso {@code @ApplicationScoped}.
+ */
+@RegisterAiService(chatMemoryProviderSupplier = RegisterAiService.NoChatMemoryProviderSupplier.class)
+@ApplicationScoped
+public interface ConversationSummarizer {
+
+    @SystemMessage("""
+        Você resume conversas entre um usuário e um assistente.
+        Mantenha apenas fatos, entidades, números e decisões que possam ser necessários
+        para entender perguntas futuras. Não invente informações.
+        Responda só com o resumo, em no máximo {maxWords} palavras.
+        """)
+    @UserMessage("""
+        Resumo anterior:
+        {summary}
+
+        Novos turnos:
+        {transcript}
+        """)
+    String summarize(String summary, String transcript, int maxWords);
+}
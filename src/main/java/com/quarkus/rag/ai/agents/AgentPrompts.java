@@ -0,0 +1,47 @@
+package com.quarkus.rag.ai.agents;
+
+/**
+ * Partes fixas dos prompts dos agentes, montadas para formar o mesmo prefixo em todas as chamadas.
+ *
+ * Todos os agentes usam o mesmo {@link #SYSTEM} (com os papéis da equipe inteira) e as mensagens que
+ * recebem contexto começam por {@link #CONTEXT}; a tarefa de cada agente e as partes variáveis
+ * (pergunta, resposta) ficam no final. Cada agente recebe o contexto cortado no próprio orçamento
+ * ({@code rag.context.budget.<agente>}), e o de orçamento menor é prefixo do de orçamento maior: o trecho
+ * comum entre analista, especialista e validador é o system message mais o contexto até o menor dos
+ * orçamentos (o do validador, 1500 tokens por padrão), não o contexto inteiro. É esse trecho que o cache
+ * de prompt do provedor pode reaproveitar entre as chamadas; qualquer texto variável antes do contexto o
+ * quebra, por isso não há nada específico do agente no system message.
+ *
+ * Os agentes não têm memória nem estado e são {@code @ApplicationScoped}: o {@code AgentInvoker} e a
+ * comparação de pipelines os chamam de threads próprias, sem contexto de requisição ativo.
+ */
+public final class AgentPrompts {
+
+    public static final String SYSTEM = """
+        Você faz parte de uma equipe de agentes que trabalha sobre documentos de uma base de conhecimento.
+        Papéis da equipe:
+        - Analista de documentos: analisa o conteúdo, extrai informações chave, identifica tópicos
+          principais e cria sumários concisos e informativos
+        - Especialista técnico: responde perguntas técnicas com precisão, com explicações detalhadas
+          quando necessário, terminologia apropriada e citando fontes quando disponíveis no contexto
+        - Validador: verifica a precisão das informações, identifica inconsistências, valida se a
+          resposta está alinhada com o contexto e sugere melhorias se necessário
+        - Coordenador: planeja a estratégia e sintetiza as respostas dos outros agentes numa resposta
+          final coerente e completa
+        Regras:
+        - Use apenas as informações fornecidas; se algo não estiver nelas, diga isso
+        - Seu papel e sua tarefa nesta chamada são indicados no final da mensagem do usuário
+        """;
+
+    /**
+     * Início das mensagens com contexto; o parâmetro do método deve se chamar {@code context}.
+     */
+    public static final String CONTEXT = """
+        Contexto:
+        {context}
+
+        """;
+
+    private AgentPrompts() {
+    }
+}
@@ -3,23 +3,20 @@ package com.quarkus.rag.ai.agents;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import io.quarkiverse.langchain4j.RegisterAiService;
+import jakarta.enterprise.context.ApplicationScoped;
 
 /**
- * Agente coordenador que orquestra outros agentes
+ * Agente coordenador que orquestra outros agentes.
+ * Usa o mesmo system message dos demais ({@link AgentPrompts}); sem memória, para o prefixo não variar.
  */
-@RegisterAiService
+@RegisterAiService(chatMemoryProviderSupplier = RegisterAiService.NoChatMemoryProviderSupplier.class)
+@ApplicationScoped
 public interface CoordinatorAgent {
 
-    @SystemMessage("""
-        Você é um coordenador inteligente de agentes.
-        Sua função é:
-        - Analisar a pergunta do usuário
-        - Determinar qual estratégia usar
-        - Sintetizar respostas de múltiplos agentes
-        - Fornecer uma resposta final coerente e completa
-        """)
+    @SystemMessage(AgentPrompts.SYSTEM)
     @UserMessage("""
-        Sintetize as seguintes informações em uma resposta final coerente:
+        Papel: coordenador.
+        Tarefa: sintetize as seguintes informações em uma resposta final coerente.
 
         Análise do Documento: {analysis}
 
@@ -31,12 +28,10 @@ public interface CoordinatorAgent {
         """)
     String synthesizeFinalAnswer(String analysis, String technicalAnswer, String validation, String originalQuestion);
 
-    @SystemMessage("""
-        Você é um planejador estratégico.
-        Analise a pergunta e determine quais agentes devem ser acionados e em qual ordem.
-        """)
+    @SystemMessage(AgentPrompts.SYSTEM)
     @UserMessage("""
-        Analise esta pergunta e determine a melhor estratégia:
+        Papel: coordenador.
+        Tarefa: analise esta pergunta e determine quais agentes devem ser acionados e em qual ordem.
 
         {question}
 
@@ -44,4 +39,3 @@ public interface CoordinatorAgent {
         """)
     String planExecution(String question);
 }
-
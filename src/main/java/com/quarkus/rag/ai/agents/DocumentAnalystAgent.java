@@ -3,37 +3,27 @@ package com.quarkus.rag.ai.agents;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import io.quarkiverse.langchain4j.RegisterAiService;
+import jakarta.enterprise.context.ApplicationScoped;
 
 /**
- * Agente especializado em análise e sumarização de documentos
+ * Agente especializado em análise e sumarização de documentos.
+ * Prompt com prefixo compartilhado ({@link AgentPrompts}); sem memória, para o prefixo não variar.
  */
-@RegisterAiService
+@RegisterAiService(chatMemoryProviderSupplier = RegisterAiService.NoChatMemoryProviderSupplier.class)
+@ApplicationScoped
 public interface DocumentAnalystAgent {
 
-    @SystemMessage("""
-        Você é um especialista em análise de documentos.
-        Sua função é:
-        - Analisar o conteúdo fornecido
-        - Extrair informações chave
-        - Criar sumários concisos e informativos
-        - Identificar tópicos principais
+    @SystemMessage(AgentPrompts.SYSTEM)
+    @UserMessage(AgentPrompts.CONTEXT + """
+        Papel: analista de documentos.
+        Tarefa: analise o contexto acima e forneça um sumário detalhado.
         """)
-    @UserMessage("""
-        Analise o seguinte documento e forneça um sumário detalhado:
+    String analyzeDocument(String context);
 
-        {documentContent}
+    @SystemMessage(AgentPrompts.SYSTEM)
+    @UserMessage(AgentPrompts.CONTEXT + """
+        Papel: analista de documentos.
+        Tarefa: extraia apenas os fatos mais relevantes do contexto acima.
         """)
-    String analyzeDocument(String documentContent);
-
-    @SystemMessage("""
-        Você é um especialista em extração de informações.
-        Extraia apenas os fatos mais relevantes do conteúdo fornecido.
-        """)
-    @UserMessage("""
-        Extraia as informações mais importantes deste texto:
-
-        {content}
-        """)
-    String extractKeyInformation(String content);
+    String extractKeyInformation(String context);
 }
-
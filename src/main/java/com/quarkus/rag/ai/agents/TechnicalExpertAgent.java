@@ -3,28 +3,22 @@ package com.quarkus.rag.ai.agents;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import io.quarkiverse.langchain4j.RegisterAiService;
+import jakarta.enterprise.context.ApplicationScoped;
 
 /**
- * Agente especializado em responder perguntas técnicas
+ * Agente especializado em responder perguntas técnicas.
+ * Prompt com prefixo compartilhado ({@link AgentPrompts}); sem memória, para o prefixo não variar.
  */
-@RegisterAiService
+@RegisterAiService(chatMemoryProviderSupplier = RegisterAiService.NoChatMemoryProviderSupplier.class)
+@ApplicationScoped
 public interface TechnicalExpertAgent {
 
-    @SystemMessage("""
-        Você é um especialista técnico altamente qualificado.
-        Sua função é:
-        - Responder perguntas técnicas com precisão
-        - Fornecer explicações detalhadas quando necessário
-        - Usar terminologia técnica apropriada
-        - Citar fontes quando disponível no contexto
-        """)
-    @UserMessage("""
-        Com base no contexto fornecido, responda a pergunta técnica:
-
-        Contexto: {context}
+    @SystemMessage(AgentPrompts.SYSTEM)
+    @UserMessage(AgentPrompts.CONTEXT + """
+        Papel: especialista técnico.
+        Tarefa: com base no contexto acima, responda a pergunta técnica.
 
         Pergunta: {question}
         """)
     String answerTechnicalQuestion(String context, String question);
 }
-
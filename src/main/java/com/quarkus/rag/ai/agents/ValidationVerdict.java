@@ -0,0 +1,34 @@
+package com.quarkus.rag.ai.agents;
+
+import dev.langchain4j.model.output.structured.Description;
+
+import java.util.List;
+
+/**
+ * Saída estruturada de {@link ValidatorAgent#validateAndFinalize}: veredito da validação e resposta final.
+ * O score é limitado a [0, 1] e a lista de problemas nunca é nula.
+ */
+public record ValidationVerdict(
+    @Description("true se a resposta está correta, completa e apoiada no contexto")
+    boolean valid,
+    @Description("problemas encontrados na resposta (vazio se nenhum)")
+    List<String> issues,
+    @Description("precisão da resposta em relação ao contexto, de 0.0 a 1.0")
+    double score,
+    @Description("resposta final ao usuário, já corrigida com base nos problemas encontrados")
+    String finalAnswer
+) {
+
+    public ValidationVerdict {
+        issues = issues == null ? List.of() : List.copyOf(issues);
+        score = Double.isNaN(score) ? 0.0 : Math.max(0.0, Math.min(1.0, score));
+    }
+
+    /**
+     * Texto da validação no formato das respostas em texto livre (campo {@code validation} das respostas).
+     */
+    public String summary() {
+        String verdict = String.format("%s (score %.2f)", valid ? "Resposta válida" : "Resposta com problemas", score);
+        return issues.isEmpty() ? verdict : verdict + "\n- " + String.join("\n- ", issues);
+    }
+}
@@ -3,30 +3,41 @@ package com.quarkus.rag.ai.agents;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import io.quarkiverse.langchain4j.RegisterAiService;
+import jakarta.enterprise.context.ApplicationScoped;
 
 /**
- * Agente responsável por validar e verificar respostas
+ * Agente responsável por validar e verificar respostas.
+ * Prompt com prefixo compartilhado ({@link AgentPrompts}); sem memória, para o prefixo não variar.
+ *
+ * {@link #validateAndFinalize} junta validação e síntese do coordenador numa única chamada com saída
+ * estruturada (JSON convertido em {@link ValidationVerdict}).
  */
-@RegisterAiService
+@RegisterAiService(chatMemoryProviderSupplier = RegisterAiService.NoChatMemoryProviderSupplier.class)
+@ApplicationScoped
 public interface ValidatorAgent {
 
-    @SystemMessage("""
-        Você é um validador crítico e rigoroso.
-        Sua função é:
-        - Verificar a precisão das informações
-        - Identificar inconsistências
-        - Validar se a resposta está alinhada com o contexto
-        - Sugerir melhorias se necessário
+    @SystemMessage(AgentPrompts.SYSTEM)
+    @UserMessage(AgentPrompts.CONTEXT + """
+        Papel: validador.
+        Tarefa: valide a resposta abaixo em relação ao contexto acima.
+        A resposta está correta e completa? Se não, sugira melhorias.
+
+        Resposta para validar: {answer}
         """)
-    @UserMessage("""
-        Valide a seguinte resposta em relação ao contexto original:
+    String validateAnswer(String context, String answer);
 
-        Contexto Original: {context}
+    @SystemMessage(AgentPrompts.SYSTEM)
+    @UserMessage(AgentPrompts.CONTEXT + """
+        Papel: validador e coordenador.
+        Tarefa: valide a resposta técnica abaixo em relação ao contexto acima, liste os problemas
+        encontrados, dê um score de precisão entre 0.0 e 1.0 e escreva a resposta final ao usuário,
+        sintetizando a análise e a resposta técnica e corrigindo os problemas encontrados.
 
-        Resposta para validar: {answer}
+        Análise do Documento: {analysis}
 
-        A resposta está correta e completa? Se não, sugira melhorias.
+        Resposta Técnica: {answer}
+
+        Pergunta Original: {question}
         """)
-    String validateAnswer(String context, String answer);
+    ValidationVerdict validateAndFinalize(String context, String analysis, String answer, String question);
 }
-
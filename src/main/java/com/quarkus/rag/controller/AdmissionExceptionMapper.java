@@ -0,0 +1,26 @@
+package com.quarkus.rag.controller;
+
+import com.quarkus.rag.admission.AdmissionRejectedException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
+
+/**
+ * Chamadas recusadas pelo controle de admissão viram 503 com {@code Retry-After}, para o cliente
+ * tentar de novo em vez de esperar o timeout do provedor.
+ */
+public class AdmissionExceptionMapper {
+
+    private static final Logger LOG = Logger.getLogger(AdmissionExceptionMapper.class);
+
+    @ServerExceptionMapper
+    public Response mapRejection(AdmissionRejectedException e) {
+        LOG.warn(e.getMessage());
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .header("Retry-After", "1")
+            .type(MediaType.APPLICATION_JSON)
+            .entity("{\"error\": \"" + e.getMessage() + "\"}")
+            .build();
+    }
+}
@@ -25,7 +25,8 @@ public class AgentController {
     public MultiAgentOrchestrator.AgentResponse askWithAgents(AgentRequest request) {
         return orchestrator.executeAgentPipeline(
             request.question(),
-            request.maxResults() != null ? request.maxResults() : 5
+            request.maxResults() != null ? request.maxResults() : 5,
+            request.filters()
         );
     }
 
@@ -37,7 +38,8 @@ public class AgentController {
     public SimpleResponse askSimple(AgentRequest request) {
         String answer = orchestrator.executeSimplified(
             request.question(),
-            request.maxResults() != null ? request.maxResults() : 5
+            request.maxResults() != null ? request.maxResults() : 5,
+            request.filters()
         );
         return new SimpleResponse(answer);
     }
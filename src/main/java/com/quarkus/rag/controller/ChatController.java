@@ -2,10 +2,12 @@ package com.quarkus.rag.controller;
 
 import com.quarkus.rag.dto.chat.ChatRequest;
 import com.quarkus.rag.dto.chat.ChatResponse;
+import com.quarkus.rag.memory.ConversationMemory;
 import com.quarkus.rag.service.RagService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 
 @Path("/api/chat")
 @Produces(MediaType.APPLICATION_JSON)
@@ -15,13 +17,29 @@ public class ChatController {
     @Inject
     RagService ragService;
 
+    @Inject
+    ConversationMemory memory;
+
     @POST
     public ChatResponse chat(ChatRequest request) {
-        String answer = ragService.ask(
+        return ragService.chat(
+            request.sessionId(),
             request.question(),
-            request.maxResults() != null ? request.maxResults() : 5
+            request.maxResults() != null ? request.maxResults() : 5,
+            request.filters()
         );
-        return new ChatResponse(answer);
+    }
+
+    /**
+     * Encerra a conversa, descartando o histórico da sessão.
+     */
+    @DELETE
+    @Path("/sessions/{sessionId}")
+    public Response endSession(@PathParam("sessionId") String sessionId) {
+        if (!memory.end(sessionId)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.noContent().build();
     }
 }
 
@@ -0,0 +1,24 @@
+package com.quarkus.rag.controller;
+
+import com.quarkus.rag.deadline.DeadlineExceededException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
+
+/**
+ * Requisições que estouram o prazo ({@code rag.deadline.budget}) viram 504, com a etapa em que pararam.
+ */
+public class DeadlineExceptionMapper {
+
+    private static final Logger LOG = Logger.getLogger(DeadlineExceptionMapper.class);
+
+    @ServerExceptionMapper
+    public Response mapDeadline(DeadlineExceededException e) {
+        LOG.warn(e.getMessage());
+        return Response.status(Response.Status.GATEWAY_TIMEOUT)
+            .type(MediaType.APPLICATION_JSON)
+            .entity("{\"error\": \"" + e.getMessage() + "\", \"stage\": \"" + e.getStage() + "\"}")
+            .build();
+    }
+}
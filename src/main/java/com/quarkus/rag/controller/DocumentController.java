@@ -1,17 +1,27 @@
 package com.quarkus.rag.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quarkus.rag.dto.document.BulkDeleteRequest;
+import com.quarkus.rag.dto.document.DocumentCursor;
+import com.quarkus.rag.dto.document.DocumentListQuery;
+import com.quarkus.rag.dto.document.DocumentPage;
+import com.quarkus.rag.dto.document.DocumentSummary;
 import com.quarkus.rag.entity.Document;
 import com.quarkus.rag.repository.DocumentRepository;
+import com.quarkus.rag.service.BulkIngestionService;
+import com.quarkus.rag.service.DocumentDeletionService;
 import com.quarkus.rag.service.DocumentIngestionService;
+import com.quarkus.rag.service.UploadedContent;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,12 +29,24 @@ import java.util.List;
 @Produces(MediaType.APPLICATION_JSON)
 public class DocumentController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     @Inject
     DocumentRepository documentRepository;
 
     @Inject
     DocumentIngestionService ingestionService;
 
+    @Inject
+    DocumentDeletionService deletionService;
+
+    @Inject
+    BulkIngestionService bulkIngestionService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @POST
     @Path("/upload")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -48,9 +70,11 @@ public class DocumentController {
 
             documentRepository.persist(document);
 
-            // Ingest document for RAG
-            try (InputStream is = new FileInputStream(file.uploadedFile().toFile())) {
-                ingestionService.ingestDocument(is, file.fileName(), file.contentType());
+            // Ingest document for RAG (arquivo temporário mapeado em memória, sem cópia no heap)
+            try (UploadedContent content = UploadedContent.map(file.uploadedFile())) {
+                DocumentIngestionService.IngestionResult result = ingestionService.ingestDocument(content,
+                    document.getId(), file.fileName(), file.contentType(), document.getUploadedAt());
+                document.setContentHash(result.sha256());
                 document.setProcessed(true);
                 documentRepository.persist(document);
             }
@@ -64,10 +88,96 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Upload em massa: vários arquivos e/ou pacotes ZIP/TAR no campo {@code files}, ingeridos em paralelo.
+     * Devolve um único relatório com o resultado de cada arquivo.
+     */
+    @POST
+    @Path("/bulk")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response uploadDocuments(@FormParam("files") List<FileUpload> files) {
+        if (files == null || files.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("{\"error\": \"At least one file is required\"}")
+                .build();
+        }
+        if (bulkIngestionService.exceedsTotalSize(files)) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .entity("{\"error\": \"Files exceed the bulk upload size limit\"}")
+                .build();
+        }
+        return Response.ok(bulkIngestionService.ingest(files)).build();
+    }
+
+    /**
+     * Listagem paginada por keyset: projeção sem o {@code content}, filtros por {@code processed} e
+     * período de upload. O {@code nextCursor} da resposta é passado em {@code cursor} para a próxima página.
+     */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Document> listDocuments() {
-        return documentRepository.listAll();
+    public Response listDocuments(@QueryParam("cursor") String cursor,
+                                  @QueryParam("limit") @DefaultValue("50") int limit,
+                                  @QueryParam("sort") @DefaultValue("uploadedAt") String sort,
+                                  @QueryParam("order") @DefaultValue("desc") String order,
+                                  @QueryParam("processed") Boolean processed,
+                                  @QueryParam("uploadedAfter") LocalDateTime uploadedAfter,
+                                  @QueryParam("uploadedBefore") LocalDateTime uploadedBefore) {
+        DocumentListQuery query;
+        DocumentCursor after;
+        try {
+            query = DocumentListQuery.of(processed, uploadedAfter, uploadedBefore, sort, order);
+            after = DocumentCursor.decode(cursor, query);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("{\"error\": \"" + e.getMessage() + "\"}")
+                .build();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Uma linha a mais indica se existe próxima página
+        List<DocumentSummary> rows = documentRepository.findPage(query, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<DocumentSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? DocumentCursor.after(items.get(items.size() - 1), query).encode() : null;
+        return Response.ok(new DocumentPage(items, nextCursor, hasMore)).build();
+    }
+
+    /**
+     * Exporta a listagem inteira como um array JSON em streaming: as linhas são lidas em páginas
+     * (keyset, transação curta por página) e escritas à medida que chegam, com memória constante.
+     */
+    @GET
+    @Path("/export")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response exportDocuments(@QueryParam("processed") Boolean processed,
+                                    @QueryParam("uploadedAfter") LocalDateTime uploadedAfter,
+                                    @QueryParam("uploadedBefore") LocalDateTime uploadedBefore) {
+        DocumentListQuery query = DocumentListQuery.of(processed, uploadedAfter, uploadedBefore, "id", "asc");
+
+        StreamingOutput body = output -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(output)) {
+                json.writeStartArray();
+                DocumentCursor after = null;
+                List<DocumentSummary> page;
+                do {
+                    DocumentCursor cursor = after;
+                    page = QuarkusTransaction.requiringNew()
+                        .call(() -> documentRepository.findPage(query, cursor, EXPORT_BATCH_SIZE));
+                    for (DocumentSummary row : page) {
+                        json.writeObject(row);
+                    }
+                    json.flush();
+                    if (!page.isEmpty()) {
+                        after = DocumentCursor.after(page.get(page.size() - 1), query);
+                    }
+                } while (page.size() == EXPORT_BATCH_SIZE);
+                json.writeEndArray();
+            }
+        };
+        return Response.ok(body)
+            .header("Content-Disposition", "attachment; filename=\"documents.json\"")
+            .build();
     }
 
     @GET
@@ -81,15 +191,32 @@ public class DocumentController {
         return Response.ok(document).build();
     }
 
+    /**
+     * Remove o documento e os seus segmentos do embedding store (mesma transação)
+     */
     @DELETE
     @Path("/{id}")
-    @Transactional
     public Response deleteDocument(@PathParam("id") Long id) {
-        boolean deleted = documentRepository.deleteById(id);
+        boolean deleted = deletionService.deleteDocument(id);
         if (!deleted) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
         return Response.noContent().build();
     }
+
+    /**
+     * Remoção em massa de documentos e segmentos
+     */
+    @POST
+    @Path("/bulk-delete")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response deleteDocuments(BulkDeleteRequest request) {
+        if (request == null || request.ids() == null || request.ids().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("{\"error\": \"ids is required\"}")
+                .build();
+        }
+        return Response.ok(deletionService.deleteDocuments(request.ids())).build();
+    }
 }
 
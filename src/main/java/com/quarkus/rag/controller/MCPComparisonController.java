@@ -1,13 +1,34 @@
 package com.quarkus.rag.controller;
 
+import com.quarkus.rag.admission.AdmissionRejectedException;
+import com.quarkus.rag.admission.LlmAdmissionController;
+import com.quarkus.rag.admission.Priority;
+import com.quarkus.rag.deadline.DeadlineExceededException;
 import com.quarkus.rag.dto.mcp.*;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
 import com.quarkus.rag.mcp.service.MCPOrchestrator;
+import com.quarkus.rag.metrics.PairedComparison;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.metrics.StageTimings;
 import com.quarkus.rag.service.MultiAgentOrchestrator;
+import com.quarkus.rag.service.StageCheckpoints;
+import com.quarkus.rag.tracing.PipelineTracing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 /**
  * Endpoint de comparação entre abordagens de Multi-Agentes:
  * 1. LangChain4j puro (implementação manual)
@@ -20,12 +41,44 @@ public class MCPComparisonController {
 
     private static final Logger LOG = Logger.getLogger(MCPComparisonController.class);
 
+    private static final int MAX_REPETITIONS = 20;
+    private static final String INCONCLUSIVE = "inconclusive";
+
     @Inject
     MultiAgentOrchestrator langchainOrchestrator;
 
+    @Inject
+    LlmAdmissionController admission;
+
     @Inject
     MCPOrchestrator mcpOrchestrator;
 
+    @Inject
+    StageCheckpoints checkpoints;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = tracing.contextPropagating(Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "compare-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
     /**
      * Endpoint usando MCP + gRPC para comunicação entre agentes
      */
@@ -35,47 +88,93 @@ public class MCPComparisonController {
         LOG.info("[MCP Endpoint] Processing question with MCP+gRPC protocol");
         return mcpOrchestrator.executeWithMCP(
             request.question(),
-            request.maxResults() != null ? request.maxResults() : 5
+            request.maxResults() != null ? request.maxResults() : 5,
+            request.filters()
         );
     }
 
     /**
-     * Endpoint de comparação lado a lado
+     * Endpoint de comparação lado a lado.
+     *
+     * As duas abordagens rodam ao mesmo tempo (ordem de submissão sorteada), então a resposta leva
+     * ~max(a, b) por repetição. Com {@code repetitions > 1} os tempos pareados de cada rodada passam por
+     * um teste t: {@code faster} só aponta um vencedor quando o intervalo de 95% da diferença não
+     * contém zero; caso contrário é {@code inconclusive} (e nulo com uma única repetição). Se as duas
+     * abordagens falham em todas as repetições a resposta é um erro, não uma comparação vazia.
+     *
+     * Com {@code reuseStages=true} os dois pipelines rodam numa sessão de checkpoints: um aquecimento
+     * executa retrieval e agentes uma vez e as execuções medidas reaproveitam esses resultados,
+     * isolando o custo de orquestração/protocolo de cada abordagem.
      */
     @POST
     @Path("/compare")
-    public ComparisonResponse compareApproaches(MCPRequest request) {
-        LOG.info("[Comparison] Executing both approaches for comparison");
+    public ComparisonResponse compareApproaches(MCPRequest request,
+                                                @QueryParam("reuseStages") @DefaultValue("false") boolean reuseStages,
+                                                @QueryParam("repetitions") @DefaultValue("1") int repetitions) {
+        int runs = Math.max(1, Math.min(repetitions, MAX_REPETITIONS));
+        int maxResults = request.maxResults() != null ? request.maxResults() : 5;
+        if (!reuseStages) {
+            return runComparison(request.question(), maxResults, request.filters(), runs, false);
+        }
+        return checkpoints.withSession(() -> {
+            warmUp(request.question(), maxResults, request.filters());
+            return runComparison(request.question(), maxResults, request.filters(), runs, true);
+        });
+    }
 
-        long startLangChain = System.currentTimeMillis();
-        MultiAgentOrchestrator.AgentResponse langchainResponse = null;
-        Exception langchainError = null;
+    private ComparisonResponse runComparison(String question, int maxResults, RetrievalFilter filter,
+                                             int runs, boolean stagesReused) {
+        LOG.info("[Comparison] Executing both approaches concurrently (" + runs + " repetitions)");
 
-        try {
-            langchainResponse = langchainOrchestrator.executeAgentPipeline(
-                request.question(),
-                request.maxResults() != null ? request.maxResults() : 5
-            );
-        } catch (Exception e) {
-            LOG.error("[Comparison] LangChain approach failed", e);
-            langchainError = e;
-        }
-        long langchainDuration = System.currentTimeMillis() - startLangChain;
+        StageTimings langchainStages = new StageTimings();
+        StageTimings mcpStages = new StageTimings();
+        List<Double> langchainMs = new ArrayList<>();
+        List<Double> mcpMs = new ArrayList<>();
+        List<Double> pairedLangchainMs = new ArrayList<>();
+        List<Double> pairedMcpMs = new ArrayList<>();
+        Run<MultiAgentOrchestrator.AgentResponse> langchain = null;
+        Run<MCPOrchestrator.MCPAgentResponse> mcp = null;
 
-        long startMCP = System.currentTimeMillis();
-        MCPOrchestrator.MCPAgentResponse mcpResponse = null;
-        Exception mcpError = null;
+        for (int i = 0; i < runs; i++) {
+            CompletableFuture<Run<MultiAgentOrchestrator.AgentResponse>> langchainFuture;
+            CompletableFuture<Run<MCPOrchestrator.MCPAgentResponse>> mcpFuture;
+            // Ordem de submissão sorteada: nenhum lado começa sistematicamente na frente
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                langchainFuture = launch("LangChain",
+                    () -> langchainOrchestrator.executeAgentPipeline(question, maxResults, filter));
+                mcpFuture = launch("MCP", () -> mcpOrchestrator.executeWithMCP(question, maxResults, filter));
+            } else {
+                mcpFuture = launch("MCP", () -> mcpOrchestrator.executeWithMCP(question, maxResults, filter));
+                langchainFuture = launch("LangChain",
+                    () -> langchainOrchestrator.executeAgentPipeline(question, maxResults, filter));
+            }
+            langchain = langchainFuture.join();
+            mcp = mcpFuture.join();
 
-        try {
-            mcpResponse = mcpOrchestrator.executeWithMCP(
-                request.question(),
-                request.maxResults() != null ? request.maxResults() : 5
-            );
-        } catch (Exception e) {
-            LOG.error("[Comparison] MCP approach failed", e);
-            mcpError = e;
+            // Etapas de execuções com erro são parciais e ficam fora do breakdown
+            if (langchain.error() == null) {
+                langchainMs.add(langchain.millis());
+                langchainStages.addAll(langchain.stages());
+            }
+            if (mcp.error() == null) {
+                mcpMs.add(mcp.millis());
+                mcpStages.addAll(mcp.stages());
+            }
+            if (langchain.error() == null && mcp.error() == null) {
+                pairedLangchainMs.add(langchain.millis());
+                pairedMcpMs.add(mcp.millis());
+            }
         }
-        long mcpDuration = System.currentTimeMillis() - startMCP;
+
+        if (langchainMs.isEmpty() && mcpMs.isEmpty()) {
+            throw bothFailed(langchain.error());
+        }
+
+        PairedComparison stats = PairedComparison.of(pairedLangchainMs, pairedMcpMs);
+        Double langchainMean = mean(langchainMs);
+        Double mcpMean = mean(mcpMs);
+        MultiAgentOrchestrator.AgentResponse langchainResponse = langchain.result();
+        MCPOrchestrator.MCPAgentResponse mcpResponse = mcp.result();
 
         return new ComparisonResponse(
             new ApproachResult(
@@ -84,8 +183,10 @@ public class MCPComparisonController {
                 langchainResponse != null ? langchainResponse.documentAnalysis() : null,
                 langchainResponse != null ? langchainResponse.technicalAnswer() : null,
                 langchainResponse != null ? langchainResponse.validation() : null,
-                langchainDuration,
-                langchainError != null ? langchainError.getMessage() : null
+                round(langchainMean),
+                stdDev(langchainMs),
+                langchainStages.averageMillis(langchainMs.size()),
+                langchain.error() != null ? langchain.error().getMessage() : null
             ),
             new ApproachResult(
                 "MCP + gRPC",
@@ -93,69 +194,206 @@ public class MCPComparisonController {
                 mcpResponse != null ? mcpResponse.documentAnalysis() : null,
                 mcpResponse != null ? mcpResponse.technicalAnswer() : null,
                 mcpResponse != null ? mcpResponse.validation() : null,
-                mcpDuration,
-                mcpError != null ? mcpError.getMessage() : null
+                round(mcpMean),
+                stdDev(mcpMs),
+                mcpStages.averageMillis(mcpMs.size()),
+                mcp.error() != null ? mcp.error().getMessage() : null
             ),
             new ComparisonMetrics(
-                langchainDuration,
-                mcpDuration,
-                mcpDuration < langchainDuration ? "MCP+gRPC" : "LangChain4j",
-                calculatePerformanceGain(langchainDuration, mcpDuration)
+                round(langchainMean),
+                round(mcpMean),
+                verdict(stats),
+                calculatePerformanceGain(langchainMean, mcpMean),
+                stagesReused,
+                runs,
+                stats.meanDifference(),
+                lowerBound(stats),
+                upperBound(stats)
             )
         );
     }
 
     /**
-     * Executa múltiplas vezes para benchmark
+     * Executa um pipeline no pool da comparação, com a prioridade e a sessão de checkpoints de quem chamou,
+     * guardando no {@link Run} o tempo de cada etapa desta execução.
+     */
+    private <T> CompletableFuture<Run<T>> launch(String approach, Supplier<T> pipeline) {
+        StageTimings stages = new StageTimings();
+        String session = checkpoints.currentSession();
+        Supplier<T> task = admission.propagating(
+            () -> checkpoints.joinSession(session, () -> metrics.collectingStages(stages, pipeline)));
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = task.get();
+                return new Run<>(result, elapsedMillis(start), stages, null);
+            } catch (Exception e) {
+                LOG.error("[Comparison] " + approach + " approach failed", e);
+                return new Run<>(null, elapsedMillis(start), stages, e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Executa múltiplas vezes para benchmark (prioridade BATCH: não disputa vagas com o tráfego interativo).
+     * As abordagens se alternam em ordem sorteada a cada iteração, e o vencedor sai do teste t pareado.
+     * Com {@code reuseStages=true} as respostas do LLM são obtidas uma vez e reaproveitadas em todas as iterações.
      */
     @POST
     @Path("/benchmark")
-    public BenchmarkResponse benchmark(BenchmarkRequest request) {
+    public BenchmarkResponse benchmark(BenchmarkRequest request,
+                                       @QueryParam("reuseStages") @DefaultValue("false") boolean reuseStages) {
+        return admission.withPriority(Priority.BATCH, () -> {
+            if (!reuseStages) {
+                return runBenchmark(request, false);
+            }
+            return checkpoints.withSession(() -> {
+                warmUp(request.question(), 5, null);
+                return runBenchmark(request, true);
+            });
+        });
+    }
+
+    /**
+     * Executa os dois pipelines uma vez, sem medir, para preencher os checkpoints da sessão
+     * (o MCP também chama {@code extractKeyInformation}, que o pipeline LangChain não usa).
+     */
+    private void warmUp(String question, int maxResults, RetrievalFilter filter) {
+        LOG.info("[Comparison] Warming up stage checkpoints");
+        try {
+            langchainOrchestrator.executeAgentPipeline(question, maxResults, filter);
+            mcpOrchestrator.executeWithMCP(question, maxResults, filter);
+        } catch (Exception e) {
+            LOG.warn("[Comparison] Warm-up failed, measured runs will execute the missing stages", e);
+        }
+    }
+
+    private BenchmarkResponse runBenchmark(BenchmarkRequest request, boolean stagesReused) {
         LOG.info("[Benchmark] Running " + request.iterations() + " iterations");
 
-        long totalLangChain = 0;
-        long totalMCP = 0;
-        int successLangChain = 0;
-        int successMCP = 0;
+        List<Double> langchainMs = new ArrayList<>();
+        List<Double> mcpMs = new ArrayList<>();
+        List<Double> pairedLangchainMs = new ArrayList<>();
+        List<Double> pairedMcpMs = new ArrayList<>();
 
         for (int i = 0; i < request.iterations(); i++) {
             LOG.info("[Benchmark] Iteration " + (i + 1) + "/" + request.iterations());
 
-            // LangChain approach
-            long startLangChain = System.currentTimeMillis();
-            try {
-                langchainOrchestrator.executeAgentPipeline(request.question(), 5);
-                totalLangChain += System.currentTimeMillis() - startLangChain;
-                successLangChain++;
-            } catch (Exception e) {
-                LOG.error("[Benchmark] LangChain iteration failed", e);
+            Double langchain;
+            Double mcp;
+            // Ordem sorteada por iteração: cache, conexões e JIT não favorecem sempre o segundo
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                langchain = timeIteration("LangChain",
+                    () -> langchainOrchestrator.executeAgentPipeline(request.question(), 5));
+                mcp = timeIteration("MCP", () -> mcpOrchestrator.executeWithMCP(request.question(), 5));
+            } else {
+                mcp = timeIteration("MCP", () -> mcpOrchestrator.executeWithMCP(request.question(), 5));
+                langchain = timeIteration("LangChain",
+                    () -> langchainOrchestrator.executeAgentPipeline(request.question(), 5));
             }
 
-            // MCP approach
-            long startMCP = System.currentTimeMillis();
-            try {
-                mcpOrchestrator.executeWithMCP(request.question(), 5);
-                totalMCP += System.currentTimeMillis() - startMCP;
-                successMCP++;
-            } catch (Exception e) {
-                LOG.error("[Benchmark] MCP iteration failed", e);
+            if (langchain != null) {
+                langchainMs.add(langchain);
+            }
+            if (mcp != null) {
+                mcpMs.add(mcp);
+            }
+            if (langchain != null && mcp != null) {
+                pairedLangchainMs.add(langchain);
+                pairedMcpMs.add(mcp);
             }
         }
 
-        double avgLangChain = successLangChain > 0 ? (double) totalLangChain / successLangChain : 0;
-        double avgMCP = successMCP > 0 ? (double) totalMCP / successMCP : 0;
+        PairedComparison stats = PairedComparison.of(pairedLangchainMs, pairedMcpMs);
+        Double avgLangChain = mean(langchainMs);
+        Double avgMCP = mean(mcpMs);
 
         return new BenchmarkResponse(
             request.iterations(),
-            successLangChain,
-            successMCP,
+            langchainMs.size(),
+            mcpMs.size(),
             avgLangChain,
             avgMCP,
-            avgMCP < avgLangChain ? "MCP+gRPC" : "LangChain4j",
-            calculatePerformanceGain((long) avgLangChain, (long) avgMCP)
+            verdict(stats),
+            calculatePerformanceGain(avgLangChain, avgMCP),
+            stagesReused,
+            stats.meanDifference(),
+            lowerBound(stats),
+            upperBound(stats)
         );
     }
 
+    /**
+     * Duração em ms de uma iteração, ou {@code null} se ela falhou.
+     */
+    private Double timeIteration(String approach, Runnable iteration) {
+        long start = System.nanoTime();
+        try {
+            iteration.run();
+            return elapsedMillis(start);
+        } catch (Exception e) {
+            LOG.error("[Benchmark] " + approach + " iteration failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Vencedor só quando a diferença pareada (LangChain - MCP) é significativa; sem veredito
+     * ({@code null}) com menos de duas medições pareadas.
+     */
+    private static String verdict(PairedComparison stats) {
+        if (stats.samples() < 2) {
+            return null;
+        }
+        if (!stats.significant()) {
+            return INCONCLUSIVE;
+        }
+        return stats.meanDifference() > 0 ? "MCP+gRPC" : "LangChain4j";
+    }
+
+    private static Double lowerBound(PairedComparison stats) {
+        return stats.samples() < 2 ? null : stats.lowerBound();
+    }
+
+    private static Double upperBound(PairedComparison stats) {
+        return stats.samples() < 2 ? null : stats.upperBound();
+    }
+
+    /**
+     * Com as duas abordagens falhando em todas as repetições não há comparação: prazo e admissão seguem
+     * para os mappers (504/503), o resto vira 500.
+     */
+    private static RuntimeException bothFailed(Exception error) {
+        if (error instanceof DeadlineExceededException || error instanceof AdmissionRejectedException) {
+            return (RuntimeException) error;
+        }
+        return new InternalServerErrorException("Both approaches failed: " + error.getMessage(), error);
+    }
+
+    private static double elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    /**
+     * Média das execuções bem-sucedidas, ou {@code null} se não houve nenhuma.
+     */
+    private static Double mean(List<Double> values) {
+        return values.isEmpty() ? null : values.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+    }
+
+    private static Long round(Double value) {
+        return value != null ? Math.round(value) : null;
+    }
+
+    private static double stdDev(List<Double> values) {
+        if (values.size() < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double squares = values.stream().mapToDouble(value -> (value - mean) * (value - mean)).sum();
+        return Math.sqrt(squares / (values.size() - 1));
+    }
+
     /**
      * Retorna informações sobre as diferenças entre as abordagens
      */
@@ -201,9 +439,16 @@ public class MCPComparisonController {
         );
     }
 
-    private double calculatePerformanceGain(long time1, long time2) {
-        if (time1 == 0) return 0;
-        return ((double) (time1 - time2) / time1) * 100;
+    /**
+     * Ganho do MCP sobre o LangChain em %; {@code null} quando um dos lados não tem tempo medido.
+     */
+    private static Double calculatePerformanceGain(Double time1, Double time2) {
+        if (time1 == null || time2 == null || time1 == 0) {
+            return null;
+        }
+        return ((time1 - time2) / time1) * 100;
     }
+
+    private record Run<T>(T result, double millis, StageTimings stages, Exception error) {}
 }
 
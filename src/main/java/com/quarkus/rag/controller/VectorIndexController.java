@@ -0,0 +1,79 @@
+package com.quarkus.rag.controller;
+
+import com.quarkus.rag.dto.admin.EvaluateIndexRequest;
+import com.quarkus.rag.dto.admin.RecallReport;
+import com.quarkus.rag.dto.admin.VectorIndexStatus;
+import com.quarkus.rag.dto.document.DeletionResult;
+import com.quarkus.rag.service.DocumentDeletionService;
+import com.quarkus.rag.service.VectorIndexService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Administração do índice ANN do pgvector.
+ *
+ * A aplicação não tem autenticação; como rebuild, avaliação de recall e compactação pesam no banco,
+ * os endpoints só respondem com {@code rag.admin.enabled=true} (404 caso contrário).
+ */
+@Path("/api/admin/vector-index")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class VectorIndexController {
+
+    @Inject
+    VectorIndexService vectorIndexService;
+
+    @Inject
+    DocumentDeletionService deletionService;
+
+    @ConfigProperty(name = "rag.admin.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @GET
+    public VectorIndexStatus status() {
+        requireEnabled();
+        return vectorIndexService.status();
+    }
+
+    /**
+     * Reconstrói o índice (CONCURRENTLY) com os parâmetros atuais
+     */
+    @POST
+    @Path("/rebuild")
+    public VectorIndexStatus rebuild() {
+        requireEnabled();
+        return vectorIndexService.rebuild();
+    }
+
+    /**
+     * Mede recall e latência do índice para diferentes ef_search/probes, comparando com a busca exata
+     */
+    @POST
+    @Path("/evaluate")
+    public RecallReport evaluate(EvaluateIndexRequest request) {
+        requireEnabled();
+        return vectorIndexService.evaluate(
+            request.sampleSize() != null ? request.sampleSize() : 50,
+            request.maxResults() != null ? request.maxResults() : 5,
+            request.values()
+        );
+    }
+
+    /**
+     * Remove segmentos de documentos que não existem mais (o mesmo job roda em rag.embeddings.compaction.interval)
+     */
+    @POST
+    @Path("/compact")
+    public DeletionResult compact() {
+        requireEnabled();
+        return deletionService.compactOrphans();
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new NotFoundException();
+        }
+    }
+}
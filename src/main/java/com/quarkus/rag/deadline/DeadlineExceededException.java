@@ -0,0 +1,18 @@
+package com.quarkus.rag.deadline;
+
+/**
+ * O prazo da requisição acabou antes (ou durante) a etapa indicada.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded at stage " + stage);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
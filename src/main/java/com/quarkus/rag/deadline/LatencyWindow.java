@@ -0,0 +1,41 @@
+package com.quarkus.rag.deadline;
+
+import java.util.Arrays;
+
+/**
+ * Janela circular com as últimas latências observadas, para estimar percentis
+ * (ex.: o atraso a partir do qual uma chamada de agente é duplicada).
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Percentil ({@code 0..1}) das amostras da janela, ou -1 se ainda não houver amostras.
+     */
+    public synchronized long percentile(double percentile) {
+        if (size == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+}
@@ -0,0 +1,132 @@
+package com.quarkus.rag.deadline;
+
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.tracing.PipelineTracing;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Prazo ponta a ponta das requisições, mantido por thread como as tags de {@link PipelineMetrics}.
+ *
+ * Os orquestradores abrem o escopo com {@link #within(Supplier)} ({@code rag.deadline.budget});
+ * o prazo é um instante absoluto (epoch millis), então pode ser enviado no {@code MCPContext}
+ * e restaurado do outro lado com {@link #until(long, Supplier)}. Cada etapa consulta
+ * {@link #remainingMillis()} para saber quanto tempo ainda tem.
+ */
+@ApplicationScoped
+public class RequestDeadlines {
+
+    private static final Logger LOG = Logger.getLogger(RequestDeadlines.class);
+
+    public static final String VALIDATION_SKIPPED =
+        "Validação não executada: tempo restante da requisição insuficiente.";
+
+    private static final ThreadLocal<Long> CURRENT_DEADLINE = new ThreadLocal<>();
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @ConfigProperty(name = "rag.deadline.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "rag.deadline.budget", defaultValue = "90s")
+    Duration budget;
+
+    // Etapas opcionais (ex.: Validator) só rodam se sobrar pelo menos este tempo
+    @ConfigProperty(name = "rag.deadline.optional-stage-min-remaining", defaultValue = "30s")
+    Duration optionalStageMinRemaining;
+
+    /**
+     * Executa o bloco com o prazo padrão, sem afrouxar um prazo mais curto já definido na thread.
+     */
+    public <T> T within(Supplier<T> block) {
+        if (!enabled) {
+            return block.get();
+        }
+        long deadline = System.currentTimeMillis() + budget.toMillis();
+        Long current = CURRENT_DEADLINE.get();
+        return until(current != null ? Math.min(current, deadline) : deadline, block);
+    }
+
+    /**
+     * Executa o bloco com o prazo absoluto informado (epoch millis; 0 = sem prazo).
+     */
+    public <T> T until(long deadlineMillis, Supplier<T> block) {
+        if (deadlineMillis <= 0) {
+            return block.get();
+        }
+        Long previous = CURRENT_DEADLINE.get();
+        CURRENT_DEADLINE.set(deadlineMillis);
+        try {
+            return block.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_DEADLINE.remove();
+            } else {
+                CURRENT_DEADLINE.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Prazo da thread corrente em epoch millis, ou 0 se não houver.
+     */
+    public long deadlineMillis() {
+        Long deadline = CURRENT_DEADLINE.get();
+        return deadline != null ? deadline : 0;
+    }
+
+    public boolean isActive() {
+        return CURRENT_DEADLINE.get() != null;
+    }
+
+    /**
+     * Tempo restante em ms ({@link Long#MAX_VALUE} sem prazo; pode ser negativo se já venceu).
+     */
+    public long remainingMillis() {
+        Long deadline = CURRENT_DEADLINE.get();
+        return deadline != null ? deadline - System.currentTimeMillis() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Falha com {@link DeadlineExceededException} se o prazo já venceu antes da etapa começar.
+     */
+    public void check(String stage) {
+        long remaining = remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return;
+        }
+        tracing.attribute("rag.deadline.remaining_ms", remaining);
+        if (remaining <= 0) {
+            throw exceeded(stage);
+        }
+    }
+
+    public DeadlineExceededException exceeded(String stage) {
+        metrics.recordDeadlineExceeded(stage);
+        return new DeadlineExceededException(stage);
+    }
+
+    /**
+     * Se uma etapa opcional deve rodar; quando o tempo restante é curto ela é pulada
+     * (degradação registrada em {@code rag.deadline.degraded}).
+     */
+    public boolean allowsOptionalStage(String stage) {
+        long remaining = remainingMillis();
+        if (remaining >= optionalStageMinRemaining.toMillis()) {
+            return true;
+        }
+        LOG.warnf("[Deadline] Skipping %s, only %dms left", stage, remaining);
+        metrics.recordDegradation(stage);
+        tracing.attribute("rag.deadline.skipped", stage);
+        return false;
+    }
+}
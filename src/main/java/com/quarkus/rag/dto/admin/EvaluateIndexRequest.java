@@ -0,0 +1,9 @@
+package com.quarkus.rag.dto.admin;
+
+import java.util.List;
+
+/**
+ * @param values valores de ef_search (HNSW) ou probes (IVFFlat) a comparar
+ */
+public record EvaluateIndexRequest(Integer sampleSize, Integer maxResults, List<Integer> values) {
+}
@@ -0,0 +1,10 @@
+package com.quarkus.rag.dto.admin;
+
+public record RecallPoint(
+    String parameter,
+    int value,
+    double recall,
+    double avgLatencyMs,
+    double p95LatencyMs
+) {
+}
@@ -0,0 +1,13 @@
+package com.quarkus.rag.dto.admin;
+
+import java.util.List;
+
+public record RecallReport(
+    String indexType,
+    int sampleSize,
+    int maxResults,
+    double exactAvgLatencyMs,
+    double exactP95LatencyMs,
+    List<RecallPoint> points
+) {
+}
@@ -0,0 +1,16 @@
+package com.quarkus.rag.dto.admin;
+
+import java.util.Map;
+
+public record VectorIndexStatus(
+    String table,
+    String indexType,
+    String indexName,
+    boolean exists,
+    boolean valid,
+    long sizeBytes,
+    long rows,
+    long rowsAtLastBuild,
+    Map<String, Object> parameters
+) {
+}
@@ -1,5 +1,6 @@
 package com.quarkus.rag.dto.agent;
 
-public record AgentRequest(String question, Integer maxResults) {
-}
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
 
+public record AgentRequest(String question, Integer maxResults, RetrievalFilter filters) {
+}
@@ -0,0 +1,9 @@
+package com.quarkus.rag.dto.chat;
+
+import java.time.Instant;
+
+/**
+ * Origem e idade de uma resposta servida de cache (ex.: {@code faq-cache}).
+ */
+public record AnswerFreshness(String source, Instant computedAt, long ageSeconds) {
+}
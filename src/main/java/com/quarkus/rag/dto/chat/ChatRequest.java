@@ -1,5 +1,9 @@
 package com.quarkus.rag.dto.chat;
 
-public record ChatRequest(String question, Integer maxResults) {
-}
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
 
+/**
+ * {@code sessionId} opcional: o devolvido pela resposta anterior, para manter o histórico da conversa.
+ */
+public record ChatRequest(String question, Integer maxResults, RetrievalFilter filters, String sessionId) {
+}
@@ -1,5 +1,12 @@
 package com.quarkus.rag.dto.chat;
 
-public record ChatResponse(String answer) {
-}
+/**
+ * {@code sessionId} identifica a conversa (nulo com a memória desativada); {@code cache} é preenchido
+ * quando a resposta veio pré-calculada do cache de FAQ.
+ */
+public record ChatResponse(String answer, String sessionId, AnswerFreshness cache) {
 
+    public ChatResponse(String answer, String sessionId) {
+        this(answer, sessionId, null);
+    }
+}
@@ -0,0 +1,6 @@
+package com.quarkus.rag.dto.document;
+
+import java.util.List;
+
+public record BulkDeleteRequest(List<Long> ids) {
+}
@@ -0,0 +1,24 @@
+package com.quarkus.rag.dto.document;
+
+/**
+ * Resultado de um arquivo (ou entrada de ZIP/TAR) do upload em massa.
+ */
+public record BulkUploadItem(
+    String fileName,
+    Long documentId,
+    String status,
+    int segments,
+    String error
+) {
+
+    public static final String INGESTED = "ingested";
+    public static final String FAILED = "failed";
+
+    public static BulkUploadItem ingested(String fileName, Long documentId, int segments) {
+        return new BulkUploadItem(fileName, documentId, INGESTED, segments, null);
+    }
+
+    public static BulkUploadItem failed(String fileName, String error) {
+        return new BulkUploadItem(fileName, null, FAILED, 0, error);
+    }
+}
@@ -0,0 +1,16 @@
+package com.quarkus.rag.dto.document;
+
+import java.util.List;
+
+/**
+ * Relatório agregado do upload em massa: totais, duração e o resultado de cada arquivo.
+ */
+public record BulkUploadReport(
+    int files,
+    int succeeded,
+    int failed,
+    long segments,
+    long durationMs,
+    List<BulkUploadItem> items
+) {
+}
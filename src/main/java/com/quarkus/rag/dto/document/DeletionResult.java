@@ -0,0 +1,10 @@
+package com.quarkus.rag.dto.document;
+
+/**
+ * Resultado de uma remoção: linhas de {@code documents} e segmentos do embedding store apagados.
+ */
+public record DeletionResult(
+    long documentsDeleted,
+    long segmentsDeleted
+) {
+}
@@ -0,0 +1,41 @@
+package com.quarkus.rag.dto.document;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição da última linha de uma página (keyset): a próxima página começa depois dela.
+ * Serializado como base64 url-safe de {@code id} ou {@code id|uploadedAt}.
+ */
+public record DocumentCursor(Long id, LocalDateTime uploadedAt) {
+
+    public static DocumentCursor after(DocumentSummary last, DocumentListQuery query) {
+        return new DocumentCursor(last.id(), query.sortByUploadedAt() ? last.uploadedAt() : null);
+    }
+
+    public String encode() {
+        String raw = uploadedAt != null ? id + "|" + uploadedAt : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o cursor recebido do cliente; {@code null} ou vazio = primeira página.
+     */
+    public static DocumentCursor decode(String cursor, DocumentListQuery query) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (query.sortByUploadedAt() != (parts.length == 2)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            return new DocumentCursor(Long.parseLong(parts[0]),
+                parts.length == 2 ? LocalDateTime.parse(parts[1]) : null);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.quarkus.rag.dto.document;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filtros e ordenação da listagem de documentos.
+ * A ordenação é sempre estável: {@code uploadedAt} desempata por {@code id}.
+ */
+public record DocumentListQuery(
+    Boolean processed,
+    LocalDateTime uploadedAfter,
+    LocalDateTime uploadedBefore,
+    boolean sortByUploadedAt,
+    boolean descending
+) {
+
+    public static DocumentListQuery of(Boolean processed, LocalDateTime uploadedAfter, LocalDateTime uploadedBefore,
+                                       String sort, String order) {
+        boolean sortByUploadedAt = switch (sort.toLowerCase(Locale.ROOT)) {
+            case "uploadedat" -> true;
+            case "id" -> false;
+            default -> throw new IllegalArgumentException("Invalid sort '" + sort + "', expected uploadedAt or id");
+        };
+        boolean descending = switch (order.toLowerCase(Locale.ROOT)) {
+            case "desc" -> true;
+            case "asc" -> false;
+            default -> throw new IllegalArgumentException("Invalid order '" + order + "', expected asc or desc");
+        };
+        return new DocumentListQuery(processed, uploadedAfter, uploadedBefore, sortByUploadedAt, descending);
+    }
+}
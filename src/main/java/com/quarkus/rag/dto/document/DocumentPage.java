@@ -0,0 +1,13 @@
+package com.quarkus.rag.dto.document;
+
+import java.util.List;
+
+/**
+ * Página da listagem de documentos; {@code nextCursor} é {@code null} na última página.
+ */
+public record DocumentPage(
+    List<DocumentSummary> items,
+    String nextCursor,
+    boolean hasMore
+) {
+}
@@ -0,0 +1,16 @@
+package com.quarkus.rag.dto.document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de um documento para listagem: tudo menos o {@code content}.
+ */
+public record DocumentSummary(
+    Long id,
+    String fileName,
+    String contentType,
+    Long fileSize,
+    LocalDateTime uploadedAt,
+    Boolean processed
+) {
+}
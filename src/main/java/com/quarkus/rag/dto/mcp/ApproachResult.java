@@ -1,13 +1,16 @@
 package com.quarkus.rag.dto.mcp;
 
+import java.util.Map;
+
 public record ApproachResult(
     String approachName,
     String finalAnswer,
     String documentAnalysis,
     String technicalAnswer,
     String validation,
-    long executionTimeMs,
+    Long executionTimeMs,
+    double stdDevMs,
+    Map<String, Double> stageBreakdownMs,
     String error
 ) {
 }
-
@@ -1,13 +1,20 @@
 package com.quarkus.rag.dto.mcp;
 
+/**
+ * {@code faster} e o intervalo de 95% são nulos com menos de duas medições pareadas (sem teste t);
+ * a média de uma abordagem sem iterações bem-sucedidas, e o ganho, também.
+ */
 public record BenchmarkResponse(
     int totalIterations,
     int successfulLangChain,
     int successfulMCP,
-    double avgTimeLangChainMs,
-    double avgTimeMCPMs,
+    Double avgTimeLangChainMs,
+    Double avgTimeMCPMs,
     String faster,
-    double performanceGainPercent
+    Double performanceGainPercent,
+    boolean stagesReused,
+    double meanDifferenceMs,
+    Double ci95LowMs,
+    Double ci95HighMs
 ) {
 }
-
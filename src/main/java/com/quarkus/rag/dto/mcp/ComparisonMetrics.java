@@ -1,10 +1,18 @@
 package com.quarkus.rag.dto.mcp;
 
+/**
+ * {@code faster} e o intervalo de 95% são nulos com menos de duas medições pareadas (sem teste t);
+ * o tempo de uma abordagem sem nenhuma execução bem-sucedida, e o ganho, também.
+ */
 public record ComparisonMetrics(
-    long langchainTimeMs,
-    long mcpTimeMs,
+    Long langchainTimeMs,
+    Long mcpTimeMs,
     String faster,
-    double performanceGainPercent
+    Double performanceGainPercent,
+    boolean stagesReused,
+    int repetitions,
+    double meanDifferenceMs,
+    Double ci95LowMs,
+    Double ci95HighMs
 ) {
 }
-
@@ -1,5 +1,6 @@
 package com.quarkus.rag.dto.mcp;
 
-public record MCPRequest(String question, Integer maxResults) {
-}
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
 
+public record MCPRequest(String question, Integer maxResults, RetrievalFilter filters) {
+}
@@ -0,0 +1,23 @@
+package com.quarkus.rag.dto.retrieval;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtros de escopo da busca, aplicados no próprio SQL da busca vetorial.
+ * Campos nulos ou vazios não restringem a busca.
+ */
+public record RetrievalFilter(
+    List<Long> documentIds,
+    List<String> contentTypes,
+    LocalDateTime uploadedAfter,
+    LocalDateTime uploadedBefore
+) {
+
+    public boolean isEmpty() {
+        return (documentIds == null || documentIds.isEmpty())
+            && (contentTypes == null || contentTypes.isEmpty())
+            && uploadedAfter == null
+            && uploadedBefore == null;
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+    // Keyset da listagem paginada (ordenação por uploadedAt com desempate por id)
+    @Index(name = "idx_documents_uploaded_at_id", columnList = "uploadedAt, id"),
+    @Index(name = "idx_documents_processed_uploaded_at_id", columnList = "processed, uploadedAt, id")
+})
 public class Document {
 
     @Id
@@ -25,6 +29,10 @@ public class Document {
 
     private Long fileSize;
 
+    // SHA-256 do arquivo original (hex), calculado na ingestão
+    @Column(length = 64)
+    private String contentHash;
+
     @Column(nullable = false)
     private Boolean processed = false;
 
@@ -77,6 +85,14 @@ public class Document {
         this.fileSize = fileSize;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Boolean getProcessed() {
         return processed;
     }
@@ -0,0 +1,306 @@
+package com.quarkus.rag.faq;
+
+import com.quarkus.rag.admission.LlmAdmissionController;
+import com.quarkus.rag.admission.Priority;
+import com.quarkus.rag.dto.chat.AnswerFreshness;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.service.CorpusChangedEvent;
+import com.quarkus.rag.service.RagService;
+import com.quarkus.rag.service.TextPreprocessingService;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Respostas pré-calculadas para as perguntas mais frequentes do chat.
+ *
+ * A lista de perguntas junta as do arquivo {@code rag.faq.questions-file} (linhas terminadas em "?",
+ * numeradas ou não) com as mais feitas desde o start (pelo menos {@code rag.faq.min-requests} vezes),
+ * até {@code rag.faq.max-questions}. Um job em segundo plano, com prioridade BATCH, calcula para cada
+ * uma a busca e a resposta final pelo mesmo fluxo do {@code /api/chat}: no start, a cada
+ * {@code rag.faq.refresh-interval} e pouco depois de cada mudança no corpus (ingestão ou remoção,
+ * agrupadas em {@code rag.faq.refresh-delay}).
+ *
+ * Desligado por padrão ({@code rag.faq.enabled}): cada refresh consome chamadas ao LLM.
+ *
+ * As perguntas são comparadas pela forma pré-processada (stopwords e stemming), e só com os parâmetros
+ * da pré-computação ({@code rag.faq.max-results}, sem filtros). Uma entrada calculada antes da última
+ * mudança no corpus, ou mais velha que {@code rag.faq.max-age}, não é servida até ser recalculada.
+ */
+@ApplicationScoped
+public class FaqCache {
+
+    private static final Logger LOG = Logger.getLogger(FaqCache.class);
+
+    public static final String SOURCE = "faq-cache";
+
+    private static final Pattern NUMBERING = Pattern.compile("^\\s*\\d+\\s*[.)\\-]\\s*");
+
+    @Inject
+    RagService ragService;
+
+    @Inject
+    TextPreprocessingService textPreprocessingService;
+
+    @Inject
+    LlmAdmissionController admission;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @ConfigProperty(name = "rag.faq.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "rag.faq.questions-file")
+    Optional<String> questionsFile;
+
+    @ConfigProperty(name = "rag.faq.max-questions", defaultValue = "20")
+    int maxQuestions;
+
+    // Vezes que uma pergunta precisa ser feita para entrar na lista
+    @ConfigProperty(name = "rag.faq.min-requests", defaultValue = "3")
+    int minRequests;
+
+    // Perguntas distintas acompanhadas; acima disso as vistas uma só vez são descartadas
+    @ConfigProperty(name = "rag.faq.history-size", defaultValue = "5000")
+    int historySize;
+
+    @ConfigProperty(name = "rag.faq.max-results", defaultValue = "5")
+    int maxResults;
+
+    @ConfigProperty(name = "rag.faq.max-age", defaultValue = "6h")
+    Duration maxAge;
+
+    @ConfigProperty(name = "rag.faq.refresh-delay", defaultValue = "30s")
+    Duration refreshDelay;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Asked> asked = new ConcurrentHashMap<>();
+    private final AtomicLong corpusVersion = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService warmupExecutor;
+
+    @PostConstruct
+    void init() {
+        warmupExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "rag-faq-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.registerGauge("rag.faq.entries", entries, Map::size);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        warmupExecutor.shutdownNow();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            scheduleRefresh();
+        }
+    }
+
+    @Scheduled(every = "${rag.faq.refresh-interval:1h}", delayed = "${rag.faq.refresh-interval:1h}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        if (enabled) {
+            scheduleRefresh();
+        }
+    }
+
+    void onCorpusChanged(@ObservesAsync CorpusChangedEvent event) {
+        // Entradas calculadas antes desta versão deixam de ser servidas
+        corpusVersion.incrementAndGet();
+        if (enabled) {
+            scheduleRefresh();
+        }
+    }
+
+    /**
+     * Resposta pré-calculada para a pergunta, ou {@code null}. Também conta a pergunta para a lista
+     * das mais frequentes.
+     */
+    public Entry lookup(String question, int requestedMaxResults, RetrievalFilter filter) {
+        if (!enabled || requestedMaxResults != maxResults || filter != null) {
+            return null;
+        }
+        String key = key(question);
+        if (key.isEmpty()) {
+            return null;
+        }
+        count(key, question);
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            metrics.recordFaqLookup("miss");
+            return null;
+        }
+        if (!isFresh(entry)) {
+            metrics.recordFaqLookup("stale");
+            return null;
+        }
+        metrics.recordFaqLookup("hit");
+        return entry;
+    }
+
+    /**
+     * Perguntas a pré-calcular: as do arquivo primeiro, depois as mais feitas, sem repetição.
+     */
+    List<String> topQuestions() {
+        Map<String, String> questions = new LinkedHashMap<>();
+        for (String question : configuredQuestions()) {
+            questions.putIfAbsent(key(question), question);
+        }
+        asked.entrySet().stream()
+            .filter(entry -> entry.getValue().count.sum() >= minRequests)
+            .sorted(Comparator.comparingLong((Map.Entry<String, Asked> entry) -> entry.getValue().count.sum()).reversed())
+            .forEach(entry -> questions.putIfAbsent(entry.getKey(), entry.getValue().question));
+        questions.remove("");
+        return questions.values().stream().limit(maxQuestions).toList();
+    }
+
+    /**
+     * Agenda um refresh para daqui a {@code rag.faq.refresh-delay}; pedidos nesse intervalo viram um só.
+     */
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            warmupExecutor.schedule(() -> {
+                refreshScheduled.set(false);
+                refresh();
+            }, refreshDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refresh() {
+        List<String> questions = topQuestions();
+        if (questions.isEmpty()) {
+            // Sem arquivo e sem perguntas repetidas ainda: nada a pré-calcular
+            entries.clear();
+            LOG.debug("[FAQ] No questions to precompute, skipping warm-up");
+            return;
+        }
+        Map<String, String> byKey = new LinkedHashMap<>();
+        questions.forEach(question -> byKey.put(key(question), question));
+        entries.keySet().retainAll(byKey.keySet());
+
+        int computed = 0;
+        int failed = 0;
+        long start = System.currentTimeMillis();
+        for (Map.Entry<String, String> question : byKey.entrySet()) {
+            Entry current = entries.get(question.getKey());
+            if (current != null && isFresh(current)) {
+                continue;
+            }
+            try {
+                entries.put(question.getKey(), compute(question.getValue()));
+                computed++;
+            } catch (RuntimeException e) {
+                failed++;
+                LOG.warnf("[FAQ] Could not precompute answer for \"%s\": %s", question.getValue(), e.getMessage());
+            }
+        }
+        if (computed > 0 || failed > 0) {
+            LOG.infof("[FAQ] Warm-up refreshed %d of %d questions in %dms (%d failed)",
+                computed, byKey.size(), System.currentTimeMillis() - start, failed);
+        }
+    }
+
+    private Entry compute(String question) {
+        // Versão lida antes: se o corpus mudar durante o cálculo, a entrada já nasce desatualizada
+        long version = corpusVersion.get();
+        RagService.Answer answer = admission.withPriority(Priority.BATCH,
+            () -> metrics.inPipeline(PipelineMetrics.PIPELINE_WARMUP, () -> ragService.answer(question, maxResults)));
+        return new Entry(question, answer.text(), answer.documents(), Instant.now(), version);
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry.corpusVersion() == corpusVersion.get()
+            && entry.computedAt().plus(maxAge).isAfter(Instant.now());
+    }
+
+    private void count(String key, String question) {
+        if (asked.size() >= historySize && !asked.containsKey(key)) {
+            asked.values().removeIf(entry -> entry.count.sum() <= 1);
+            if (asked.size() >= historySize) {
+                return;
+            }
+        }
+        asked.computeIfAbsent(key, ignored -> new Asked(question)).count.increment();
+    }
+
+    private List<String> configuredQuestions() {
+        if (questionsFile.isEmpty() || questionsFile.get().isBlank()) {
+            return List.of();
+        }
+        Path path = Path.of(questionsFile.get());
+        try {
+            List<String> questions = new ArrayList<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String question = NUMBERING.matcher(line).replaceFirst("").strip();
+                if (question.endsWith("?")) {
+                    questions.add(question);
+                }
+            }
+            return questions;
+        } catch (IOException e) {
+            LOG.warnf("[FAQ] Could not read questions file %s: %s", path, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private String key(String question) {
+        return textPreprocessingService.preprocessForQuery(question);
+    }
+
+    private static final class Asked {
+        private final String question;
+        private final LongAdder count = new LongAdder();
+
+        private Asked(String question) {
+            this.question = question;
+        }
+    }
+
+    /**
+     * Resposta pré-calculada, com os segmentos usados e a versão do corpus em que foi calculada.
+     */
+    public record Entry(String question, String answer, List<String> documents, Instant computedAt,
+                        long corpusVersion) {
+
+        public AnswerFreshness freshness() {
+            return new AnswerFreshness(SOURCE, computedAt,
+                Duration.between(computedAt, Instant.now()).toSeconds());
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package com.quarkus.rag.mcp.service;
 
 import com.quarkus.rag.ai.agents.*;
+import com.quarkus.rag.deadline.RequestDeadlines;
 import com.quarkus.rag.mcp.proto.*;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.service.AgentInvoker;
+import com.quarkus.rag.service.GroundednessScorer;
+import com.quarkus.rag.service.StageCheckpoints;
+import com.quarkus.rag.tracing.PipelineTracing;
 import io.grpc.stub.StreamObserver;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.util.function.Supplier;
+
 /**
  * Implementação do serviço gRPC para comunicação entre agentes usando MCP
  * (Model Context Protocol)
  *
  * Esta é a implementação alternativa que usa gRPC para comunicação estruturada
  * entre agentes, permitindo comparação com a abordagem LangChain pura.
+ *
+ * O prazo recebido no {@code MCPContext} ({@code deadline_ms}) vale para as chamadas de agente
+ * feitas pelo serviço, como o deadline de uma chamada gRPC. Com uma sessão de checkpoints no
+ * metadata, as respostas dos agentes são reaproveitadas via {@link StageCheckpoints}.
+ * A {@code confidence} da resposta técnica é o groundedness local ({@link GroundednessScorer}).
  */
 @ApplicationScoped
 public class MCPAgentService extends AgentCommunicationServiceGrpc.AgentCommunicationServiceImplBase {
@@ -31,30 +44,58 @@ public class MCPAgentService extends AgentCommunicationServiceGrpc.AgentCommunic
     @Inject
     CoordinatorAgent coordinatorAgent;
 
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    AgentInvoker agentInvoker;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @Inject
+    RequestDeadlines deadlines;
+
+    @Inject
+    StageCheckpoints checkpoints;
+
+    @Inject
+    GroundednessScorer groundednessScorer;
+
     @Override
     public void analyzeDocument(AnalyzeRequest request, StreamObserver<AnalyzeResponse> responseObserver) {
         LOG.info("[MCP-gRPC] Analyzing document via MCP protocol");
 
         try {
-            String content = request.getContent();
-            String analysis = documentAnalystAgent.analyzeDocument(content);
-            String keyInfo = documentAnalystAgent.extractKeyInformation(content);
-
-            // Criar contexto MCP de resposta
-            MCPContext responseContext = MCPContext.newBuilder()
-                    .setSessionId(request.getContext().getSessionId())
-                    .setAgentId("document-analyst")
-                    .setTimestamp(System.currentTimeMillis())
-                    .build();
-
-            // Construir resposta MCP
-            AnalyzeResponse response = AnalyzeResponse.newBuilder()
-                    .setContext(responseContext)
-                    .setAnalysis(analysis)
-                    .setSummary(keyInfo)
-                    .addKeyPoints("Analysis completed via MCP protocol")
-                    .addKeyPoints("Using gRPC for inter-agent communication")
-                    .build();
+            AnalyzeResponse response = serve("AnalyzeDocument", request.getContext(), () -> {
+                String content = request.getContent();
+                String analysis = checkpoints.memoize(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                        StageCheckpoints.template(DocumentAnalystAgent.class, "analyzeDocument"),
+                        () -> agentInvoker.call(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                                () -> documentAnalystAgent.analyzeDocument(content)),
+                        content);
+                String keyInfo = checkpoints.memoize(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                        StageCheckpoints.template(DocumentAnalystAgent.class, "extractKeyInformation"),
+                        () -> agentInvoker.call(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                                () -> documentAnalystAgent.extractKeyInformation(content)),
+                        content);
+
+                // Criar contexto MCP de resposta
+                MCPContext responseContext = tracing.inject(MCPContext.newBuilder()
+                        .setSessionId(request.getContext().getSessionId())
+                        .setAgentId("document-analyst")
+                        .setTimestamp(System.currentTimeMillis()))
+                        .build();
+
+                // Construir resposta MCP
+                return metrics.timeSerialization("AnalyzeResponse", () -> AnalyzeResponse.newBuilder()
+                        .setContext(responseContext)
+                        .setAnalysis(analysis)
+                        .setSummary(keyInfo)
+                        .addKeyPoints("Analysis completed via MCP protocol")
+                        .addKeyPoints("Using gRPC for inter-agent communication")
+                        .build());
+            });
 
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -71,22 +112,29 @@ public class MCPAgentService extends AgentCommunicationServiceGrpc.AgentCommunic
         LOG.info("[MCP-gRPC] Processing technical question via MCP protocol");
 
         try {
-            String question = request.getQuestion();
-            String context = request.getContextContent();
-            String answer = technicalExpertAgent.answerTechnicalQuestion(context, question);
-
-            MCPContext responseContext = MCPContext.newBuilder()
-                    .setSessionId(request.getContext().getSessionId())
-                    .setAgentId("technical-expert")
-                    .setTimestamp(System.currentTimeMillis())
-                    .build();
-
-            TechnicalResponse response = TechnicalResponse.newBuilder()
-                    .setContext(responseContext)
-                    .setAnswer(answer)
-                    .setConfidence(0.95)
-                    .addSources("Retrieved documents")
-                    .build();
+            TechnicalResponse response = serve("AnswerTechnical", request.getContext(), () -> {
+                String question = request.getQuestion();
+                String context = request.getContextContent();
+                String answer = checkpoints.memoize(PipelineMetrics.AGENT_TECHNICAL_EXPERT,
+                        StageCheckpoints.template(TechnicalExpertAgent.class, "answerTechnicalQuestion"),
+                        () -> agentInvoker.call(PipelineMetrics.AGENT_TECHNICAL_EXPERT,
+                                () -> technicalExpertAgent.answerTechnicalQuestion(context, question)),
+                        context, question);
+                double confidence = groundednessScorer.score(answer, context);
+
+                MCPContext responseContext = tracing.inject(MCPContext.newBuilder()
+                        .setSessionId(request.getContext().getSessionId())
+                        .setAgentId("technical-expert")
+                        .setTimestamp(System.currentTimeMillis()))
+                        .build();
+
+                return metrics.timeSerialization("TechnicalResponse", () -> TechnicalResponse.newBuilder()
+                        .setContext(responseContext)
+                        .setAnswer(answer)
+                        .setConfidence(confidence)
+                        .addSources("Retrieved documents")
+                        .build());
+            });
 
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -103,22 +151,27 @@ public class MCPAgentService extends AgentCommunicationServiceGrpc.AgentCommunic
         LOG.info("[MCP-gRPC] Validating response via MCP protocol");
 
         try {
-            String answer = request.getAnswer();
-            String context = request.getOriginalContext();
-            String validation = validatorAgent.validateAnswer(context, answer);
-
-            MCPContext responseContext = MCPContext.newBuilder()
-                    .setSessionId(request.getContext().getSessionId())
-                    .setAgentId("validator")
-                    .setTimestamp(System.currentTimeMillis())
-                    .build();
-
-            ValidationResponse response = ValidationResponse.newBuilder()
-                    .setContext(responseContext)
-                    .setIsValid(true)
-                    .setValidationMessage(validation)
-                    .setAccuracyScore(0.92)
-                    .build();
+            ValidationResponse response = serve("ValidateAnswer", request.getContext(), () -> {
+                String answer = request.getAnswer();
+                String context = request.getOriginalContext();
+                String validation = checkpoints.memoize(PipelineMetrics.AGENT_VALIDATOR,
+                        StageCheckpoints.template(ValidatorAgent.class, "validateAnswer"),
+                        () -> agentInvoker.call(PipelineMetrics.AGENT_VALIDATOR,
+                                () -> validatorAgent.validateAnswer(context, answer)),
+                        context, answer);
+
+                MCPContext responseContext = tracing.inject(MCPContext.newBuilder()
+                        .setSessionId(request.getContext().getSessionId())
+                        .setAgentId("validator")
+                        .setTimestamp(System.currentTimeMillis()))
+                        .build();
+
+                // Texto livre do validador: is_valid e accuracy_score ficam ausentes em vez de inventados
+                return metrics.timeSerialization("ValidationResponse", () -> ValidationResponse.newBuilder()
+                        .setContext(responseContext)
+                        .setValidationMessage(validation)
+                        .build());
+            });
 
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -130,29 +183,80 @@ public class MCPAgentService extends AgentCommunicationServiceGrpc.AgentCommunic
         }
     }
 
+    @Override
+    public void validateAndFinalize(ValidateRequest request, StreamObserver<ValidationResponse> responseObserver) {
+        LOG.info("[MCP-gRPC] Validating and finalizing response via MCP protocol");
+
+        try {
+            ValidationResponse response = serve("ValidateAndFinalize", request.getContext(), () -> {
+                String context = request.getOriginalContext();
+                ValidationVerdict verdict = checkpoints.memoize(PipelineMetrics.AGENT_VALIDATOR,
+                        StageCheckpoints.template(ValidatorAgent.class, "validateAndFinalize"),
+                        () -> agentInvoker.call(PipelineMetrics.AGENT_VALIDATOR,
+                                () -> validatorAgent.validateAndFinalize(context, request.getAnalysis(),
+                                        request.getAnswer(), request.getQuestion())),
+                        context, request.getAnalysis(), request.getAnswer(), request.getQuestion());
+                metrics.recordValidation(verdict.valid(), verdict.score());
+
+                MCPContext responseContext = tracing.inject(MCPContext.newBuilder()
+                        .setSessionId(request.getContext().getSessionId())
+                        .setAgentId("validator")
+                        .setTimestamp(System.currentTimeMillis()))
+                        .build();
+
+                // Sem resposta final no JSON, fica a resposta técnica
+                String finalAnswer = verdict.finalAnswer() == null || verdict.finalAnswer().isBlank()
+                        ? request.getAnswer() : verdict.finalAnswer();
+                return metrics.timeSerialization("ValidationResponse", () -> ValidationResponse.newBuilder()
+                        .setContext(responseContext)
+                        .setIsValid(verdict.valid())
+                        .setValidationMessage(verdict.summary())
+                        .setAccuracyScore(verdict.score())
+                        .addAllIssues(verdict.issues())
+                        .setFinalAnswer(finalAnswer)
+                        .build());
+            });
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+
+            LOG.info("[MCP-gRPC] Validation and finalization completed");
+        } catch (Exception e) {
+            LOG.error("[MCP-gRPC] Error validating and finalizing response", e);
+            responseObserver.onError(e);
+        }
+    }
+
     @Override
     public void coordinateAgents(CoordinateRequest request, StreamObserver<CoordinateResponse> responseObserver) {
         LOG.info("[MCP-gRPC] Coordinating agents via MCP protocol");
 
         try {
-            String finalAnswer = coordinatorAgent.synthesizeFinalAnswer(
-                    request.getAnalysis(),
-                    request.getTechnicalAnswer(),
-                    request.getValidation(),
-                    request.getQuestion()
-            );
-
-            MCPContext responseContext = MCPContext.newBuilder()
-                    .setSessionId(request.getContext().getSessionId())
-                    .setAgentId("coordinator")
-                    .setTimestamp(System.currentTimeMillis())
-                    .build();
-
-            CoordinateResponse response = CoordinateResponse.newBuilder()
-                    .setContext(responseContext)
-                    .setFinalAnswer(finalAnswer)
-                    .setReasoning("Synthesized from all agent responses using MCP protocol")
-                    .build();
+            CoordinateResponse response = serve("CoordinateAgents", request.getContext(), () -> {
+                String finalAnswer = checkpoints.memoize(PipelineMetrics.AGENT_COORDINATOR,
+                        StageCheckpoints.template(CoordinatorAgent.class, "synthesizeFinalAnswer"),
+                        () -> agentInvoker.call(PipelineMetrics.AGENT_COORDINATOR,
+                                () -> coordinatorAgent.synthesizeFinalAnswer(
+                                        request.getAnalysis(),
+                                        request.getTechnicalAnswer(),
+                                        request.getValidation(),
+                                        request.getQuestion()
+                                )),
+                        request.getAnalysis(), request.getTechnicalAnswer(), request.getValidation(),
+                        request.getQuestion());
+
+                MCPContext responseContext = tracing.inject(MCPContext.newBuilder()
+                        .setSessionId(request.getContext().getSessionId())
+                        .setAgentId("coordinator")
+                        .setTimestamp(System.currentTimeMillis()))
+                        .build();
+
+                return metrics.timeSerialization("CoordinateResponse", () -> CoordinateResponse.newBuilder()
+                        .setContext(responseContext)
+                        .setFinalAnswer(finalAnswer)
+                        .setReasoning("Synthesized from all agent responses using MCP protocol")
+                        .build());
+            });
 
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -164,6 +268,14 @@ public class MCPAgentService extends AgentCommunicationServiceGrpc.AgentCommunic
         }
     }
 
+    /**
+     * Span de servidor com o trace, o prazo e a sessão de checkpoints recebidos no contexto MCP.
+     */
+    private <T> T serve(String method, MCPContext context, Supplier<T> block) {
+        return tracing.serverCall(method, context, () -> deadlines.until(context.getDeadlineMs(),
+                () -> checkpoints.joinSession(context.getMetadataMap().get(StageCheckpoints.SESSION_METADATA), block)));
+    }
+
     @Override
     public StreamObserver<AgentEvent> streamAgentEvents(StreamObserver<AgentEvent> responseObserver) {
         LOG.info("[MCP-gRPC] Starting agent event stream");
@@ -1,12 +1,23 @@
 package com.quarkus.rag.mcp.service;
 
+import com.quarkus.rag.admission.AdmissionRejectedException;
+import com.quarkus.rag.deadline.DeadlineExceededException;
+import com.quarkus.rag.deadline.RequestDeadlines;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
 import com.quarkus.rag.mcp.proto.*;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.service.ContextAssemblyService;
+import com.quarkus.rag.service.GroundednessScorer;
+import com.quarkus.rag.service.RequestCoalescer;
 import com.quarkus.rag.service.RetrievalService;
+import com.quarkus.rag.service.StageCheckpoints;
+import com.quarkus.rag.tracing.PipelineTracing;
 import io.grpc.ManagedChannel;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.util.List;
@@ -24,6 +35,9 @@ import java.util.concurrent.TimeUnit;
  * - Suporte a streaming bidirecional
  * - Contexto compartilhado entre agentes (session_id, metadata)
  * - Rastreabilidade completa de cada chamada
+ * - Prazo da requisição propagado no MCPContext ({@code deadline_ms})
+ * - Validação e síntese fundidas no {@code ValidateAndFinalize} com {@code rag.agents.fused-validation.enabled}
+ * - Early exit pela {@code confidence} (groundedness) da resposta técnica com {@code rag.agents.early-exit.enabled}
  * - Performance otimizada com serialização binária
  */
 @ApplicationScoped
@@ -39,6 +53,33 @@ public class MCPOrchestrator {
     @Inject
     MCPAgentService mcpAgentService;
 
+    @Inject
+    ContextAssemblyService contextAssembly;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @Inject
+    RequestCoalescer coalescer;
+
+    @Inject
+    RequestDeadlines deadlines;
+
+    @Inject
+    StageCheckpoints checkpoints;
+
+    @ConfigProperty(name = "rag.agents.fused-validation.enabled", defaultValue = "false")
+    boolean fusedValidation;
+
+    @ConfigProperty(name = "rag.agents.early-exit.enabled", defaultValue = "false")
+    boolean earlyExitEnabled;
+
+    @ConfigProperty(name = "rag.agents.early-exit.threshold", defaultValue = "0.75")
+    double earlyExitThreshold;
+
     private ManagedChannel channel;
     private AgentCommunicationServiceGrpc.AgentCommunicationServiceBlockingStub blockingStub;
 
@@ -67,15 +108,27 @@ public class MCPOrchestrator {
      * Esta é a versão comparável ao MultiAgentOrchestrator
      */
     public MCPAgentResponse executeWithMCP(String question, int maxResults) {
+        return executeWithMCP(question, maxResults, null);
+    }
+
+    public MCPAgentResponse executeWithMCP(String question, int maxResults, RetrievalFilter filter) {
+        return deadlines.within(() -> coalescer.coalesce(PipelineMetrics.PIPELINE_MCP, question, maxResults, filter,
+            () -> metrics.inPipeline(PipelineMetrics.PIPELINE_MCP, () -> runWithMCP(question, maxResults, filter))));
+    }
+
+    private MCPAgentResponse runWithMCP(String question, int maxResults, RetrievalFilter filter) {
         String sessionId = UUID.randomUUID().toString();
         LOG.info("[MCP Pipeline] Starting session: " + sessionId);
+        tracing.attribute("mcp.session_id", sessionId);
 
         long startTime = System.currentTimeMillis();
 
         try {
             // Step 1: Retrieve relevant documents (mesmo processo)
             LOG.info("[MCP Pipeline] Step 1: Retrieving documents...");
-            List<String> relevantDocs = retrievalService.retrieve(question, maxResults);
+            List<String> relevantDocs = checkpoints.memoize(StageCheckpoints.STAGE_RETRIEVAL,
+                StageCheckpoints.RETRIEVAL_TEMPLATE,
+                () -> retrievalService.retrieve(question, maxResults, filter), question, maxResults, filter);
 
             if (relevantDocs.isEmpty()) {
                 return new MCPAgentResponse(
@@ -84,11 +137,15 @@ public class MCPOrchestrator {
                 );
             }
 
-            String context = String.join("\n\n", relevantDocs);
+            // Mesma montagem de contexto do pipeline LangChain (dedup + orçamento por agente)
+            ContextAssemblyService.AssembledContext assembled = contextAssembly.assemble(question, relevantDocs);
+            String analysisContext = contextAssembly.contextFor(assembled, PipelineMetrics.AGENT_DOCUMENT_ANALYST);
+            String context = contextAssembly.contextFor(assembled, PipelineMetrics.AGENT_TECHNICAL_EXPERT);
+            String validationContext = contextAssembly.contextFor(assembled, PipelineMetrics.AGENT_VALIDATOR);
 
             // Step 2: Document Analysis via MCP/gRPC
             LOG.info("[MCP Pipeline] Step 2: Document Analyst (via MCP)...");
-            AnalyzeResponse analysisResponse = callAnalyzeDocument(sessionId, context);
+            AnalyzeResponse analysisResponse = callAnalyzeDocument(sessionId, analysisContext);
             String analysis = analysisResponse.getAnalysis();
             LOG.debug("[MCP] Analysis: " + analysis);
 
@@ -100,20 +157,46 @@ public class MCPOrchestrator {
             String technicalAnswer = technicalResponse.getAnswer();
             LOG.debug("[MCP] Technical Answer: " + technicalAnswer);
 
-            // Step 4: Validation via MCP/gRPC
-            LOG.info("[MCP Pipeline] Step 4: Validator (via MCP)...");
-            ValidationResponse validationResponse = callValidateResponse(
-                sessionId, technicalAnswer, context, question
-            );
-            String validation = validationResponse.getValidationMessage();
-            LOG.debug("[MCP] Validation: " + validation);
-
-            // Step 5: Coordination via MCP/gRPC
-            LOG.info("[MCP Pipeline] Step 5: Coordinator (via MCP)...");
-            CoordinateResponse coordinateResponse = callCoordinateAgents(
-                sessionId, question, analysis, technicalAnswer, validation
-            );
-            String finalAnswer = coordinateResponse.getFinalAnswer();
+            // Early exit: a well-grounded technical answer skips validation and coordination
+            double groundedness = technicalResponse.getConfidence();
+            boolean earlyExit = earlyExitEnabled && groundedness >= earlyExitThreshold;
+            metrics.recordGroundedness(groundedness, earlyExit);
+
+            // Step 4: Validation via MCP/gRPC (skipped when the request deadline is close)
+            boolean validate = !earlyExit && deadlines.allowsOptionalStage(PipelineMetrics.AGENT_VALIDATOR);
+            String validation;
+            String finalAnswer;
+            if (earlyExit) {
+                LOG.info("[MCP Pipeline] Groundedness " + groundedness + ", skipping Validator and Coordinator");
+                validation = GroundednessScorer.earlyExitMessage(groundedness);
+                finalAnswer = technicalAnswer;
+            } else if (validate && fusedValidation) {
+                // Steps 4+5 in a single structured call
+                LOG.info("[MCP Pipeline] Step 4: Validator validating and finalizing (via MCP)...");
+                ValidationResponse validationResponse = callValidateAndFinalize(
+                    sessionId, technicalAnswer, validationContext, question, analysis
+                );
+                validation = validationResponse.getValidationMessage();
+                finalAnswer = validationResponse.getFinalAnswer();
+            } else {
+                if (validate) {
+                    LOG.info("[MCP Pipeline] Step 4: Validator (via MCP)...");
+                    ValidationResponse validationResponse = callValidateResponse(
+                        sessionId, technicalAnswer, validationContext, question
+                    );
+                    validation = validationResponse.getValidationMessage();
+                } else {
+                    validation = RequestDeadlines.VALIDATION_SKIPPED;
+                }
+                LOG.debug("[MCP] Validation: " + validation);
+
+                // Step 5: Coordination via MCP/gRPC
+                LOG.info("[MCP Pipeline] Step 5: Coordinator (via MCP)...");
+                CoordinateResponse coordinateResponse = callCoordinateAgents(
+                    sessionId, question, analysis, technicalAnswer, validation
+                );
+                finalAnswer = coordinateResponse.getFinalAnswer();
+            }
 
             long duration = System.currentTimeMillis() - startTime;
             LOG.info("[MCP Pipeline] Completed in " + duration + "ms");
@@ -129,6 +212,9 @@ public class MCPOrchestrator {
                 duration
             );
 
+        } catch (DeadlineExceededException | AdmissionRejectedException e) {
+            // Mapeadas para 504/503 pelo controller
+            throw e;
         } catch (Exception e) {
             LOG.error("[MCP Pipeline] Error executing pipeline", e);
             throw new RuntimeException("MCP Pipeline error: " + e.getMessage(), e);
@@ -139,13 +225,17 @@ public class MCPOrchestrator {
      * Chama o agente de análise via MCP/gRPC (in-process)
      */
     private AnalyzeResponse callAnalyzeDocument(String sessionId, String content) {
+        return tracing.clientCall("AnalyzeDocument", () -> doCallAnalyzeDocument(sessionId, content));
+    }
+
+    private AnalyzeResponse doCallAnalyzeDocument(String sessionId, String content) {
         MCPContext context = createMCPContext(sessionId, "orchestrator");
 
-        AnalyzeRequest request = AnalyzeRequest.newBuilder()
+        AnalyzeRequest request = metrics.timeSerialization("AnalyzeRequest", () -> AnalyzeRequest.newBuilder()
                 .setContext(context)
                 .setContent(content)
                 .setTask("analyze")
-                .build();
+                .build());
 
         // Simulação de chamada in-process (em produção seria via gRPC real)
         AnalyzeResponseCollector collector = new AnalyzeResponseCollector();
@@ -158,15 +248,21 @@ public class MCPOrchestrator {
      */
     private TechnicalResponse callAnswerTechnical(
             String sessionId, String question, String context, String previousAnalysis) {
+        return tracing.clientCall("AnswerTechnical",
+                () -> doCallAnswerTechnical(sessionId, question, context, previousAnalysis));
+    }
+
+    private TechnicalResponse doCallAnswerTechnical(
+            String sessionId, String question, String context, String previousAnalysis) {
 
         MCPContext mcpContext = createMCPContext(sessionId, "orchestrator");
 
-        TechnicalRequest request = TechnicalRequest.newBuilder()
+        TechnicalRequest request = metrics.timeSerialization("TechnicalRequest", () -> TechnicalRequest.newBuilder()
                 .setContext(mcpContext)
                 .setQuestion(question)
                 .setContextContent(context)
                 .setPreviousAnalysis(previousAnalysis)
-                .build();
+                .build());
 
         TechnicalResponseCollector collector = new TechnicalResponseCollector();
         mcpAgentService.answerTechnical(request, collector);
@@ -178,37 +274,77 @@ public class MCPOrchestrator {
      */
     private ValidationResponse callValidateResponse(
             String sessionId, String answer, String context, String question) {
+        return tracing.clientCall("ValidateAnswer",
+                () -> doCallValidateResponse(sessionId, answer, context, question));
+    }
+
+    private ValidationResponse doCallValidateResponse(
+            String sessionId, String answer, String context, String question) {
 
         MCPContext mcpContext = createMCPContext(sessionId, "orchestrator");
 
-        ValidateRequest request = ValidateRequest.newBuilder()
+        ValidateRequest request = metrics.timeSerialization("ValidateRequest", () -> ValidateRequest.newBuilder()
                 .setContext(mcpContext)
                 .setAnswer(answer)
                 .setOriginalContext(context)
                 .setQuestion(question)
-                .build();
+                .build());
 
         ValidateResponseCollector collector = new ValidateResponseCollector();
         mcpAgentService.validateAnswer(request, collector);
         return collector.getResponse();
     }
 
+    /**
+     * Chama a validação com síntese da resposta final via MCP/gRPC
+     */
+    private ValidationResponse callValidateAndFinalize(
+            String sessionId, String answer, String context, String question, String analysis) {
+        return tracing.clientCall("ValidateAndFinalize",
+                () -> doCallValidateAndFinalize(sessionId, answer, context, question, analysis));
+    }
+
+    private ValidationResponse doCallValidateAndFinalize(
+            String sessionId, String answer, String context, String question, String analysis) {
+
+        MCPContext mcpContext = createMCPContext(sessionId, "orchestrator");
+
+        ValidateRequest request = metrics.timeSerialization("ValidateRequest", () -> ValidateRequest.newBuilder()
+                .setContext(mcpContext)
+                .setAnswer(answer)
+                .setOriginalContext(context)
+                .setQuestion(question)
+                .setAnalysis(analysis)
+                .build());
+
+        ValidateResponseCollector collector = new ValidateResponseCollector();
+        mcpAgentService.validateAndFinalize(request, collector);
+        return collector.getResponse();
+    }
+
     /**
      * Chama o agente coordenador via MCP/gRPC
      */
     private CoordinateResponse callCoordinateAgents(
             String sessionId, String question, String analysis,
             String technicalAnswer, String validation) {
+        return tracing.clientCall("CoordinateAgents",
+                () -> doCallCoordinateAgents(sessionId, question, analysis, technicalAnswer, validation));
+    }
+
+    private CoordinateResponse doCallCoordinateAgents(
+            String sessionId, String question, String analysis,
+            String technicalAnswer, String validation) {
 
         MCPContext mcpContext = createMCPContext(sessionId, "orchestrator");
 
-        CoordinateRequest request = CoordinateRequest.newBuilder()
+        CoordinateRequest request = metrics.timeSerialization("CoordinateRequest", () -> CoordinateRequest.newBuilder()
                 .setContext(mcpContext)
                 .setQuestion(question)
                 .setAnalysis(analysis)
                 .setTechnicalAnswer(technicalAnswer)
                 .setValidation(validation)
-                .build();
+                .build());
 
         CoordinateResponseCollector collector = new CoordinateResponseCollector();
         mcpAgentService.coordinateAgents(request, collector);
@@ -216,16 +352,25 @@ public class MCPOrchestrator {
     }
 
     /**
-     * Cria contexto MCP para rastreamento
+     * Cria contexto MCP para rastreamento, incluindo o traceparent W3C do span corrente,
+     * o prazo da requisição e a sessão de checkpoints (se houver)
      */
     private MCPContext createMCPContext(String sessionId, String agentId) {
-        return MCPContext.newBuilder()
+        MCPContext.Builder builder = MCPContext.newBuilder()
                 .setSessionId(sessionId)
                 .setAgentId(agentId)
                 .setTimestamp(System.currentTimeMillis())
+                .setDeadlineMs(deadlines.deadlineMillis())
                 .putMetadata("protocol", "MCP-gRPC")
-                .putMetadata("version", "1.0")
-                .build();
+                .putMetadata("version", "1.0");
+        if (checkpoints.currentSession() != null) {
+            builder.putMetadata(StageCheckpoints.SESSION_METADATA, checkpoints.currentSession());
+        }
+        return tracing.inject(builder).build();
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        return t instanceof RuntimeException e ? e : new RuntimeException(t);
     }
 
     // Collectors para resposta (simplificado para uso in-process)
@@ -239,7 +384,7 @@ public class MCPOrchestrator {
 
         @Override
         public void onError(Throwable t) {
-            throw new RuntimeException(t);
+            throw propagate(t);
         }
 
         @Override
@@ -260,7 +405,7 @@ public class MCPOrchestrator {
 
         @Override
         public void onError(Throwable t) {
-            throw new RuntimeException(t);
+            throw propagate(t);
         }
 
         @Override
@@ -281,7 +426,7 @@ public class MCPOrchestrator {
 
         @Override
         public void onError(Throwable t) {
-            throw new RuntimeException(t);
+            throw propagate(t);
         }
 
         @Override
@@ -302,7 +447,7 @@ public class MCPOrchestrator {
 
         @Override
         public void onError(Throwable t) {
-            throw new RuntimeException(t);
+            throw propagate(t);
         }
 
         @Override
@@ -0,0 +1,90 @@
+package com.quarkus.rag.memory;
+
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Estado de uma sessão de chat: resumo dos turnos compactados, turnos recentes e o contexto da
+ * última busca (para reaproveitar em perguntas de seguimento). Acesso sincronizado na instância.
+ */
+public final class Conversation {
+
+    private final String id;
+    private String summary = "";
+    private final List<Turn> turns = new ArrayList<>();
+    private Retrieval lastRetrieval;
+    private boolean compacting;
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    Conversation(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    synchronized String summary() {
+        return summary;
+    }
+
+    synchronized List<Turn> turns() {
+        return List.copyOf(turns);
+    }
+
+    synchronized Retrieval lastRetrieval() {
+        return lastRetrieval;
+    }
+
+    synchronized void append(Turn turn, Retrieval retrieval) {
+        turns.add(turn);
+        if (retrieval != null) {
+            lastRetrieval = retrieval;
+        }
+    }
+
+    /**
+     * Reserva a compactação dos {@code count} turnos mais antigos; {@code null} se já há uma em andamento.
+     */
+    synchronized List<Turn> beginCompaction(int keepRecent) {
+        if (compacting || turns.size() <= keepRecent) {
+            return null;
+        }
+        compacting = true;
+        return List.copyOf(turns.subList(0, turns.size() - keepRecent));
+    }
+
+    /**
+     * Troca os turnos compactados (ainda no início da lista, já que só há appends) pelo novo resumo.
+     */
+    synchronized void completeCompaction(List<Turn> compacted, String newSummary) {
+        if (newSummary != null) {
+            turns.subList(0, compacted.size()).clear();
+            summary = newSummary;
+        }
+        compacting = false;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    long lastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    record Turn(String question, String answer, int tokens) {}
+
+    /**
+     * Busca do último turno: consulta usada, parâmetros e segmentos recuperados.
+     */
+    public record Retrieval(String query, int maxResults, RetrievalFilter filter, List<String> documents) {
+
+        boolean sameParameters(int otherMaxResults, RetrievalFilter otherFilter) {
+            return maxResults == otherMaxResults && Objects.equals(filter, otherFilter);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.quarkus.rag.memory;
+
+import com.quarkus.rag.admission.LlmAdmissionController;
+import com.quarkus.rag.admission.Priority;
+import com.quarkus.rag.ai.ConversationSummarizer;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.service.AgentInvoker;
+import com.quarkus.rag.service.TextPreprocessingService;
+import com.quarkus.rag.service.TokenCounter;
+import com.quarkus.rag.tracing.PipelineTracing;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Memória de conversa do chat, por sessão ({@code sessionId} da requisição).
+ *
+ * O histórico enviado ao modelo nunca passa de {@code rag.chat.memory.max-tokens}: quando os turnos
+ * recentes estouram o orçamento, os mais antigos (todos menos {@code keep-recent-turns}) são
+ * compactados num resumo pelo {@link ConversationSummarizer}, em segundo plano e com prioridade
+ * BATCH; até o resumo ficar pronto, os turnos que não cabem são simplesmente omitidos.
+ *
+ * As sessões ficam num LRU limitado a {@code rag.chat.memory.max-sessions} e expiram após
+ * {@code rag.chat.memory.ttl} sem uso. A memória também alimenta a busca: perguntas de seguimento
+ * curtas são reescritas com as palavras-chave do turno anterior e, quando os termos da pergunta já
+ * estão cobertos pelos segmentos da última busca, esses segmentos são reaproveitados sem nova busca.
+ */
+@ApplicationScoped
+public class ConversationMemory {
+
+    private static final Logger LOG = Logger.getLogger(ConversationMemory.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Começos típicos de pergunta de seguimento (sem acentos)
+    private static final List<String> FOLLOW_UP_MARKERS = List.of(
+        "e ", "isso", "esse", "essa", "este", "esta", "ele ", "ela ", "dele", "dela", "nele", "nela",
+        "deles", "delas", "tambem", "mais ", "entao", "quanto a", "sobre isso", "e sobre", "e quanto");
+
+    // Palavras-chave do turno anterior acrescentadas à pergunta reescrita
+    private static final int MAX_CARRIED_KEYWORDS = 8;
+
+    @Inject
+    TokenCounter tokenCounter;
+
+    @Inject
+    TextPreprocessingService textPreprocessingService;
+
+    @Inject
+    ConversationSummarizer summarizer;
+
+    @Inject
+    AgentInvoker agentInvoker;
+
+    @Inject
+    LlmAdmissionController admission;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @ConfigProperty(name = "rag.chat.memory.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "rag.chat.memory.max-tokens", defaultValue = "1500")
+    int maxTokens;
+
+    @ConfigProperty(name = "rag.chat.memory.keep-recent-turns", defaultValue = "2")
+    int keepRecentTurns;
+
+    @ConfigProperty(name = "rag.chat.memory.max-sessions", defaultValue = "1000")
+    int maxSessions;
+
+    @ConfigProperty(name = "rag.chat.memory.ttl", defaultValue = "30m")
+    Duration ttl;
+
+    @ConfigProperty(name = "rag.chat.memory.follow-up-max-words", defaultValue = "6")
+    int followUpMaxWords;
+
+    // Fração dos termos da pergunta que precisa aparecer nos segmentos anteriores para reaproveitá-los
+    @ConfigProperty(name = "rag.chat.memory.reuse-coverage", defaultValue = "0.8")
+    double reuseCoverage;
+
+    private Map<String, Conversation> sessions;
+
+    private ExecutorService compactionExecutor;
+
+    @PostConstruct
+    void init() {
+        sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Conversation> eldest) {
+                return size() > maxSessions;
+            }
+        };
+        compactionExecutor = tracing.contextPropagating(Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "rag-chat-memory-compaction");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        metrics.registerGauge("rag.chat.memory.sessions", this, ConversationMemory::size);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        compactionExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sessão existente ou uma nova (com id gerado se {@code sessionId} for nulo, vazio ou já expirado).
+     */
+    public Conversation open(String sessionId) {
+        String id = sessionId == null || sessionId.isBlank() ? UUID.randomUUID().toString() : sessionId;
+        Conversation conversation;
+        synchronized (sessions) {
+            conversation = sessions.computeIfAbsent(id, Conversation::new);
+        }
+        conversation.touch();
+        return conversation;
+    }
+
+    public boolean end(String sessionId) {
+        synchronized (sessions) {
+            return sessions.remove(sessionId) != null;
+        }
+    }
+
+    /**
+     * Histórico para o prompt: resumo + turnos mais recentes que cabem no orçamento de tokens.
+     */
+    public String history(Conversation conversation) {
+        String summary = conversation.summary();
+        List<Conversation.Turn> turns = conversation.turns();
+        if (summary.isEmpty() && turns.isEmpty()) {
+            return "";
+        }
+
+        String summaryLine = summary.isEmpty() ? "" : "Resumo da conversa: " + summary;
+        int budget = maxTokens - tokenCounter.count(summaryLine);
+        List<String> lines = new ArrayList<>();
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            Conversation.Turn turn = turns.get(i);
+            if (turn.tokens() > budget) {
+                break;
+            }
+            budget -= turn.tokens();
+            lines.add(0, render(turn));
+        }
+        if (!summaryLine.isEmpty()) {
+            lines.add(0, summaryLine);
+        }
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Registra o turno e, se o histórico passou do orçamento, agenda a compactação dos turnos antigos.
+     */
+    public void record(Conversation conversation, String question, String answer, String retrievalQuery,
+                       int maxResults, RetrievalFilter filter, List<String> documents) {
+        Conversation.Turn turn = new Conversation.Turn(question, answer,
+            tokenCounter.count(render(question, answer)) + 1);
+        Conversation.Retrieval retrieval = retrievalQuery == null ? null
+            : new Conversation.Retrieval(retrievalQuery, maxResults, filter, List.copyOf(documents));
+        conversation.append(turn, retrieval);
+
+        int total = tokenCounter.count(conversation.summary())
+            + conversation.turns().stream().mapToInt(Conversation.Turn::tokens).sum();
+        if (total > maxTokens) {
+            scheduleCompaction(conversation);
+        }
+    }
+
+    /**
+     * Pergunta para a busca: perguntas de seguimento recebem as palavras-chave do turno anterior.
+     */
+    public String rewriteQuery(Conversation conversation, String question) {
+        Conversation.Retrieval previous = conversation.lastRetrieval();
+        if (previous == null || !isFollowUp(question)) {
+            return question;
+        }
+        Set<String> own = new HashSet<>(Arrays.asList(
+            WHITESPACE.split(textPreprocessingService.extractKeywords(question))));
+        List<String> carried = Arrays.stream(WHITESPACE.split(textPreprocessingService.extractKeywords(previous.query())))
+            .filter(keyword -> !keyword.isBlank() && !own.contains(keyword))
+            .limit(MAX_CARRIED_KEYWORDS)
+            .toList();
+        if (carried.isEmpty()) {
+            return question;
+        }
+        String rewritten = question.trim() + " " + String.join(" ", carried);
+        LOG.debugf("[ChatMemory] Rewrote follow-up '%s' as '%s'", question, rewritten);
+        return rewritten;
+    }
+
+    /**
+     * Segmentos da última busca, se a pergunta é de seguimento, os parâmetros são os mesmos e os seus
+     * termos já aparecem nesses segmentos; senão {@code null}.
+     */
+    public Conversation.Retrieval reusableRetrieval(Conversation conversation, String question, int maxResults,
+                                                    RetrievalFilter filter) {
+        Conversation.Retrieval previous = conversation.lastRetrieval();
+        if (previous == null || !previous.sameParameters(maxResults, filter) || !isFollowUp(question)) {
+            return null;
+        }
+        String[] terms = WHITESPACE.split(textPreprocessingService.preprocessForEmbedding(question));
+        if (terms.length == 0 || terms[0].isEmpty()) {
+            return null;
+        }
+        Set<String> available = new HashSet<>();
+        for (String document : previous.documents()) {
+            available.addAll(Arrays.asList(WHITESPACE.split(document.toLowerCase(Locale.ROOT))));
+        }
+        long covered = Arrays.stream(terms).filter(available::contains).count();
+        return (double) covered / terms.length >= reuseCoverage ? previous : null;
+    }
+
+    /**
+     * Seguimento: começa com um marcador ("e ...", "isso", "dele"...) ou é curta e com no máximo
+     * uma palavra-chave própria (ex.: "E o preço?", "Quanto custa?").
+     */
+    boolean isFollowUp(String question) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(question.trim().toLowerCase(Locale.ROOT),
+            Normalizer.Form.NFD)).replaceAll("");
+        if (FOLLOW_UP_MARKERS.stream().anyMatch(normalized::startsWith)) {
+            return true;
+        }
+        String keywords = textPreprocessingService.extractKeywords(question);
+        return WHITESPACE.split(normalized).length <= followUpMaxWords
+            && (keywords.isBlank() || WHITESPACE.split(keywords).length <= 1);
+    }
+
+    @Scheduled(every = "${rag.chat.memory.eviction-interval:1m}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int removed;
+        synchronized (sessions) {
+            int before = sessions.size();
+            sessions.values().removeIf(conversation -> conversation.lastAccessMillis() < cutoff);
+            removed = before - sessions.size();
+        }
+        if (removed > 0) {
+            LOG.debugf("[ChatMemory] Evicted %d idle sessions", removed);
+        }
+    }
+
+    private void scheduleCompaction(Conversation conversation) {
+        List<Conversation.Turn> compacted = conversation.beginCompaction(keepRecentTurns);
+        if (compacted == null) {
+            return;
+        }
+        String previousSummary = conversation.summary();
+        String transcript = String.join("\n", compacted.stream().map(ConversationMemory::render).toList());
+        // Resumo limitado a um terço do orçamento (aprox. 0,75 palavra por token)
+        int maxWords = Math.max(30, maxTokens / 4);
+
+        Supplier<String> compaction = metrics.propagating(() -> {
+            String summary = null;
+            try {
+                summary = admission.withPriority(Priority.BATCH, () -> agentInvoker.call(
+                    PipelineMetrics.AGENT_SUMMARIZER,
+                    () -> summarizer.summarize(previousSummary.isEmpty() ? "(nenhum)" : previousSummary,
+                        transcript, maxWords)));
+                summary = truncate(summary.trim(), maxTokens / 3);
+            } catch (RuntimeException e) {
+                LOG.warnf("[ChatMemory] Summarization failed for session %s: %s", conversation.id(), e.getMessage());
+            } finally {
+                conversation.completeCompaction(compacted, summary);
+            }
+            return summary;
+        });
+        compactionExecutor.submit(compaction::get);
+    }
+
+    private String truncate(String text, int tokenLimit) {
+        if (tokenCounter.count(text) <= tokenLimit) {
+            return text;
+        }
+        String[] words = WHITESPACE.split(text);
+        int end = words.length;
+        while (end > 1 && tokenCounter.count(String.join(" ", Arrays.copyOf(words, end))) > tokenLimit) {
+            end = end * 3 / 4;
+        }
+        return String.join(" ", Arrays.copyOf(words, end));
+    }
+
+    private int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    private static String render(Conversation.Turn turn) {
+        return render(turn.question(), turn.answer());
+    }
+
+    private static String render(String question, String answer) {
+        return "Usuário: " + question + "\nAssistente: " + answer;
+    }
+}
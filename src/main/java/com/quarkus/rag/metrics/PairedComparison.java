@@ -0,0 +1,69 @@
+package com.quarkus.rag.metrics;
+
+import java.util.List;
+
+/**
+ * Teste t pareado sobre latências de duas abordagens medidas nas mesmas repetições
+ * ({@code a[i]} e {@code b[i]} na mesma rodada).
+ *
+ * {@code meanDifference} é {@code a - b}; o intervalo de 95% que não contém zero indica que a
+ * diferença é significativa. Com menos de duas amostras o resultado nunca é significativo.
+ */
+public record PairedComparison(int samples, double meanA, double meanB, double meanDifference,
+                               double stdDevDifference, double lowerBound, double upperBound) {
+
+    // Quantil 0,975 da distribuição t para 1..30 graus de liberdade
+    private static final double[] T_975 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    public static PairedComparison of(List<Double> a, List<Double> b) {
+        if (a.size() != b.size()) {
+            throw new IllegalArgumentException("Paired samples differ in size: " + a.size() + " != " + b.size());
+        }
+        int n = a.size();
+        if (n == 0) {
+            return new PairedComparison(0, 0, 0, 0, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+
+        double sumA = 0;
+        double sumB = 0;
+        for (int i = 0; i < n; i++) {
+            sumA += a.get(i);
+            sumB += b.get(i);
+        }
+        double meanA = sumA / n;
+        double meanB = sumB / n;
+        double meanDifference = meanA - meanB;
+        if (n < 2) {
+            return new PairedComparison(n, meanA, meanB, meanDifference, 0,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+
+        double squares = 0;
+        for (int i = 0; i < n; i++) {
+            double deviation = a.get(i) - b.get(i) - meanDifference;
+            squares += deviation * deviation;
+        }
+        double stdDev = Math.sqrt(squares / (n - 1));
+        double margin = criticalValue(n - 1) * stdDev / Math.sqrt(n);
+        return new PairedComparison(n, meanA, meanB, meanDifference, stdDev,
+            meanDifference - margin, meanDifference + margin);
+    }
+
+    public boolean significant() {
+        return samples >= 2 && (lowerBound > 0 || upperBound < 0);
+    }
+
+    private static double criticalValue(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_975.length) {
+            return T_975[degreesOfFreedom - 1];
+        }
+        if (degreesOfFreedom <= 60) {
+            return 2.000;
+        }
+        return degreesOfFreedom <= 120 ? 1.980 : 1.960;
+    }
+}
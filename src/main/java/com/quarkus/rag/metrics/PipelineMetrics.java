@@ -0,0 +1,310 @@
+package com.quarkus.rag.metrics;
+
+import com.google.protobuf.MessageLite;
+import com.quarkus.rag.tracing.PipelineTracing;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas de latência e tokens por etapa dos pipelines, expostas via Prometheus em /q/metrics.
+ *
+ * Todas as métricas recebem a tag {@code pipeline} ({@code langchain}, {@code mcp} ou {@code chat}).
+ * O pipeline corrente é mantido por thread: os orquestradores abrem o escopo com
+ * {@link #inPipeline(String, Supplier)} e as etapas aninhadas (retrieval, agentes, tokens)
+ * herdam a tag automaticamente.
+ *
+ * Pipelines, embeddings, buscas vetoriais e chamadas de agentes também abrem um span
+ * em {@link PipelineTracing}, de modo que latência e trace usam os mesmos pontos de medição.
+ * Dentro de {@link #collectingStages(StageTimings, Supplier)} essas mesmas medições são somadas
+ * por etapa para o detalhamento de uma execução.
+ */
+@ApplicationScoped
+public class PipelineMetrics {
+
+    public static final String PIPELINE_LANGCHAIN = "langchain";
+    public static final String PIPELINE_MCP = "mcp";
+    public static final String PIPELINE_CHAT = "chat";
+    public static final String PIPELINE_WARMUP = "warmup";
+    public static final String PIPELINE_NONE = "none";
+
+    public static final String AGENT_DOCUMENT_ANALYST = "document-analyst";
+    public static final String AGENT_TECHNICAL_EXPERT = "technical-expert";
+    public static final String AGENT_VALIDATOR = "validator";
+    public static final String AGENT_COORDINATOR = "coordinator";
+    public static final String AGENT_CHAT = "chat";
+    public static final String AGENT_SUMMARIZER = "summarizer";
+
+    private static final ThreadLocal<String> CURRENT_PIPELINE = new ThreadLocal<>();
+    private static final ThreadLocal<String> CURRENT_AGENT = new ThreadLocal<>();
+    private static final ThreadLocal<StageTimings> CURRENT_STAGES = new ThreadLocal<>();
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    PipelineTracing tracing;
+
+    /**
+     * Executa o bloco com a tag de pipeline definida para a thread corrente.
+     */
+    public <T> T inPipeline(String pipeline, Supplier<T> block) {
+        String previous = CURRENT_PIPELINE.get();
+        CURRENT_PIPELINE.set(pipeline);
+        try {
+            return tracing.span("pipeline " + pipeline,
+                () -> timer("rag.pipeline", "pipeline", pipeline).record(block));
+        } finally {
+            restore(CURRENT_PIPELINE, previous);
+        }
+    }
+
+    /**
+     * Executa o bloco somando em {@code timings} o tempo de cada etapa medida (embedding, busca vetorial,
+     * agentes, serialização MCP).
+     */
+    public <T> T collectingStages(StageTimings timings, Supplier<T> block) {
+        StageTimings previous = CURRENT_STAGES.get();
+        CURRENT_STAGES.set(timings);
+        try {
+            return block.get();
+        } finally {
+            restore(CURRENT_STAGES, previous);
+        }
+    }
+
+    public String currentPipeline() {
+        String pipeline = CURRENT_PIPELINE.get();
+        return pipeline != null ? pipeline : PIPELINE_NONE;
+    }
+
+    /**
+     * Agente em execução na thread corrente, usado para atribuir os tokens consumidos.
+     */
+    public String currentAgent() {
+        return CURRENT_AGENT.get();
+    }
+
+    /**
+     * Captura o pipeline e o agente da thread atual para que o bloco, executado em outra thread
+     * (ex.: buscas paralelas), registre as métricas com as mesmas tags.
+     */
+    public <T> Supplier<T> propagating(Supplier<T> block) {
+        String pipeline = CURRENT_PIPELINE.get();
+        String agent = CURRENT_AGENT.get();
+        StageTimings stages = CURRENT_STAGES.get();
+        return () -> {
+            String previousPipeline = CURRENT_PIPELINE.get();
+            String previousAgent = CURRENT_AGENT.get();
+            StageTimings previousStages = CURRENT_STAGES.get();
+            restore(CURRENT_PIPELINE, pipeline);
+            restore(CURRENT_AGENT, agent);
+            restore(CURRENT_STAGES, stages);
+            try {
+                return block.get();
+            } finally {
+                restore(CURRENT_PIPELINE, previousPipeline);
+                restore(CURRENT_AGENT, previousAgent);
+                restore(CURRENT_STAGES, previousStages);
+            }
+        };
+    }
+
+    public <T> T timeEmbedding(Supplier<T> block) {
+        return tracing.span("embedding",
+            () -> record(timer("rag.embedding", "pipeline", currentPipeline()), "embedding", block));
+    }
+
+    public <T> T timeVectorSearch(Supplier<T> block) {
+        return tracing.span("vector.search", () -> {
+            tracing.attribute("db.system", "postgresql");
+            return record(timer("rag.vector.search", "pipeline", currentPipeline()), "vector-search", block);
+        });
+    }
+
+    /**
+     * Mede uma chamada de agente LLM e marca o agente para a contagem de tokens.
+     */
+    public <T> T timeAgentCall(String agent, Supplier<T> block) {
+        String previous = CURRENT_AGENT.get();
+        CURRENT_AGENT.set(agent);
+        try {
+            return tracing.span("agent " + agent, () -> {
+                tracing.attribute("rag.pipeline", currentPipeline());
+                tracing.attribute("gen_ai.system", "openai");
+                return record(timer("rag.agent.call", "pipeline", currentPipeline(), "agent", agent),
+                    "agent." + agent, block);
+            });
+        } finally {
+            restore(CURRENT_AGENT, previous);
+        }
+    }
+
+    /**
+     * Mede a construção de uma mensagem protobuf do MCP e registra o seu tamanho serializado.
+     */
+    public <T extends MessageLite> T timeSerialization(String messageType, Supplier<T> block) {
+        T message = record(timer("rag.mcp.serialization", "pipeline", currentPipeline(), "message", messageType),
+            "serialization", block);
+        DistributionSummary.builder("rag.mcp.message.size")
+            .baseUnit("bytes")
+            .tags("pipeline", currentPipeline(), "message", messageType)
+            .register(registry)
+            .record(message.getSerializedSize());
+        return message;
+    }
+
+    /**
+     * Conta requisições que executaram o pipeline ({@code leader}) e as que reaproveitaram
+     * uma execução idêntica em andamento ({@code coalesced}).
+     */
+    public void recordCoalescing(String operation, boolean coalesced) {
+        registry.counter("rag.requests.coalescing", "operation", operation,
+            "outcome", coalesced ? "coalesced" : "leader").increment();
+    }
+
+    /**
+     * Tempo entre o pedido de uma chamada LLM e a sua admissão (token bucket + fila de concorrência).
+     */
+    public void recordAdmissionWait(String model, String priority, long waitNanos) {
+        timer("rag.admission.wait", "model", model, "priority", priority).record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAdmissionRejection(String model, String priority, String reason) {
+        registry.counter("rag.admission.rejected", "model", model, "priority", priority, "reason", reason)
+            .increment();
+    }
+
+    /**
+     * Etapas reaproveitadas de um checkpoint da sessão ({@code hit}) ou executadas ({@code miss}).
+     */
+    public void recordCheckpoint(String stage, boolean hit) {
+        registry.counter("rag.checkpoints", "pipeline", currentPipeline(), "stage", stage,
+            "outcome", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * Perguntas do chat respondidas com os segmentos do turno anterior ({@code reused}) ou com nova busca.
+     */
+    public void recordChatMemoryReuse(boolean reused) {
+        registry.counter("rag.chat.memory.retrieval", "outcome", reused ? "reused" : "retrieved").increment();
+    }
+
+    /**
+     * Consultas ao cache de FAQ: respondidas do cache ({@code hit}), desatualizadas ({@code stale}) ou ausentes.
+     */
+    public void recordFaqLookup(String outcome) {
+        registry.counter("rag.faq.lookups", "outcome", outcome).increment();
+    }
+
+    public void recordDeadlineExceeded(String stage) {
+        registry.counter("rag.deadline.exceeded", "pipeline", currentPipeline(), "stage", stage).increment();
+    }
+
+    /**
+     * Etapa opcional pulada por falta de tempo restante no prazo da requisição.
+     */
+    public void recordDegradation(String stage) {
+        registry.counter("rag.deadline.degraded", "pipeline", currentPipeline(), "stage", stage).increment();
+    }
+
+    /**
+     * Chamadas de agente duplicadas por demora ({@code launched}) e quantas a duplicata venceu ({@code won}).
+     */
+    public void recordHedge(String agent, String outcome) {
+        registry.counter("rag.agent.hedged", "pipeline", currentPipeline(), "agent", agent, "outcome", outcome)
+            .increment();
+    }
+
+    /**
+     * Veredito da validação estruturada: score de precisão por resultado ({@code valid=true|false}).
+     */
+    public void recordValidation(boolean valid, double score) {
+        DistributionSummary.builder("rag.validation.score")
+            .tags("pipeline", currentPipeline(), "valid", String.valueOf(valid))
+            .register(registry)
+            .record(score);
+    }
+
+    /**
+     * Groundedness da resposta técnica e se ela dispensou Validator e Coordinator ({@code early-exit}).
+     */
+    public void recordGroundedness(double score, boolean earlyExit) {
+        DistributionSummary.builder("rag.agent.groundedness")
+            .tags("pipeline", currentPipeline(), "outcome", earlyExit ? "early-exit" : "continued")
+            .register(registry)
+            .record(score);
+    }
+
+    public <T> void registerGauge(String name, T state, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, state, value)
+            .tags(tags)
+            .register(registry);
+    }
+
+    public <T> T timeIngestionPhase(String phase, Supplier<T> block) {
+        return timer("rag.ingestion", "phase", phase).record(block);
+    }
+
+    public void recordTokens(String agent, Integer promptTokens, Integer completionTokens) {
+        String pipeline = currentPipeline();
+        if (promptTokens != null) {
+            registry.counter("rag.agent.tokens", "pipeline", pipeline, "agent", agent, "type", "prompt")
+                .increment(promptTokens);
+        }
+        if (completionTokens != null) {
+            registry.counter("rag.agent.tokens", "pipeline", pipeline, "agent", agent, "type", "completion")
+                .increment(completionTokens);
+        }
+    }
+
+    /**
+     * Tokens do contexto antes e depois da montagem (dedup + orçamento) para um agente.
+     */
+    public void recordContextTokens(String agent, int rawTokens, int assembledTokens) {
+        String pipeline = currentPipeline();
+        DistributionSummary.builder("rag.context.tokens")
+            .tags("pipeline", pipeline, "agent", agent, "stage", "raw")
+            .register(registry)
+            .record(rawTokens);
+        DistributionSummary.builder("rag.context.tokens")
+            .tags("pipeline", pipeline, "agent", agent, "stage", "assembled")
+            .register(registry)
+            .record(assembledTokens);
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static <T> T record(Timer timer, String stage, Supplier<T> block) {
+        StageTimings stages = CURRENT_STAGES.get();
+        if (stages == null) {
+            return timer.record(block);
+        }
+        long start = System.nanoTime();
+        try {
+            return timer.record(block);
+        } finally {
+            stages.add(stage, System.nanoTime() - start);
+        }
+    }
+
+    private static <V> void restore(ThreadLocal<V> holder, V previous) {
+        if (previous == null) {
+            holder.remove();
+        } else {
+            holder.set(previous);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.quarkus.rag.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tempo acumulado por etapa (nanos) de uma ou mais execuções de pipeline, preenchido por
+ * {@link PipelineMetrics#collectingStages}. Seguro para etapas executadas em paralelo.
+ */
+public class StageTimings {
+
+    private final ConcurrentMap<String, LongAdder> nanos = new ConcurrentHashMap<>();
+
+    public void add(String stage, long elapsedNanos) {
+        nanos.computeIfAbsent(stage, ignored -> new LongAdder()).add(elapsedNanos);
+    }
+
+    /**
+     * Soma as etapas de outra execução (ex.: só das execuções que terminaram sem erro).
+     */
+    public void addAll(StageTimings other) {
+        other.nanos.forEach((stage, total) -> add(stage, total.sum()));
+    }
+
+    /**
+     * Média em ms por execução, por etapa (ordenado pelo nome da etapa).
+     */
+    public Map<String, Double> averageMillis(int runs) {
+        Map<String, Double> average = new TreeMap<>();
+        nanos.forEach((stage, total) -> average.put(stage, total.sum() / 1_000_000.0 / Math.max(runs, 1)));
+        return average;
+    }
+}
@@ -0,0 +1,43 @@
+package com.quarkus.rag.metrics;
+
+import com.quarkus.rag.tracing.PipelineTracing;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Listener registrado no ChatModel do OpenAI que contabiliza tokens de prompt e de resposta
+ * por agente. O agente e o pipeline vêm do escopo aberto em {@link PipelineMetrics}.
+ */
+@ApplicationScoped
+public class TokenUsageListener implements ChatModelListener {
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        TokenUsage tokenUsage = responseContext.response().tokenUsage();
+        if (tokenUsage == null) {
+            return;
+        }
+
+        String agent = metrics.currentAgent();
+        if (tokenUsage.inputTokenCount() != null) {
+            tracing.attribute("gen_ai.usage.input_tokens", tokenUsage.inputTokenCount());
+        }
+        if (tokenUsage.outputTokenCount() != null) {
+            tracing.attribute("gen_ai.usage.output_tokens", tokenUsage.outputTokenCount());
+        }
+        metrics.recordTokens(
+            agent != null ? agent : "unknown",
+            tokenUsage.inputTokenCount(),
+            tokenUsage.outputTokenCount()
+        );
+    }
+}
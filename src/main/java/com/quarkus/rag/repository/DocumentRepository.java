@@ -1,10 +1,16 @@
 package com.quarkus.rag.repository;
 
+import com.quarkus.rag.dto.document.DocumentCursor;
+import com.quarkus.rag.dto.document.DocumentListQuery;
+import com.quarkus.rag.dto.document.DocumentSummary;
 import com.quarkus.rag.entity.Document;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class DocumentRepository implements PanacheRepository<Document> {
@@ -16,5 +22,50 @@ public class DocumentRepository implements PanacheRepository<Document> {
     public List<Document> findByFileName(String fileName) {
         return list("fileName = ?1", fileName);
     }
-}
 
+    /**
+     * Até {@code limit} documentos depois do cursor (keyset), como projeção sem o {@code content}.
+     * Usa o índice {@code (uploadedAt, id)}: o custo não cresce com a profundidade da página.
+     */
+    public List<DocumentSummary> findPage(DocumentListQuery query, DocumentCursor after, int limit) {
+        StringBuilder hql = new StringBuilder("select new " + DocumentSummary.class.getName()
+            + "(d.id, d.fileName, d.contentType, d.fileSize, d.uploadedAt, d.processed) from Document d where 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (query.processed() != null) {
+            hql.append(" and d.processed = :processed");
+            params.put("processed", query.processed());
+        }
+        if (query.uploadedAfter() != null) {
+            hql.append(" and d.uploadedAt >= :uploadedAfter");
+            params.put("uploadedAfter", query.uploadedAfter());
+        }
+        if (query.uploadedBefore() != null) {
+            hql.append(" and d.uploadedAt <= :uploadedBefore");
+            params.put("uploadedBefore", query.uploadedBefore());
+        }
+
+        String comparison = query.descending() ? " < " : " > ";
+        if (after != null) {
+            if (query.sortByUploadedAt()) {
+                hql.append(" and (d.uploadedAt").append(comparison).append(":cursorUploadedAt")
+                    .append(" or (d.uploadedAt = :cursorUploadedAt and d.id").append(comparison).append(":cursorId))");
+                params.put("cursorUploadedAt", after.uploadedAt());
+            } else {
+                hql.append(" and d.id").append(comparison).append(":cursorId");
+            }
+            params.put("cursorId", after.id());
+        }
+
+        String direction = query.descending() ? " desc" : " asc";
+        hql.append(query.sortByUploadedAt()
+            ? " order by d.uploadedAt" + direction + ", d.id" + direction
+            : " order by d.id" + direction);
+
+        TypedQuery<DocumentSummary> typed = getEntityManager()
+            .createQuery(hql.toString(), DocumentSummary.class)
+            .setMaxResults(limit);
+        params.forEach(typed::setParameter);
+        return typed.getResultList();
+    }
+}
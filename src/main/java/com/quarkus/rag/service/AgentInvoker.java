@@ -0,0 +1,200 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.admission.LlmAdmissionController;
+import com.quarkus.rag.admission.Priority;
+import com.quarkus.rag.deadline.LatencyWindow;
+import com.quarkus.rag.deadline.RequestDeadlines;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.tracing.PipelineTracing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ponto único de chamada dos agentes LLM: mede a chamada ({@link PipelineMetrics#timeAgentCall})
+ * e a submete ao controle de admissão do modelo de chat.
+ *
+ * Com prazo de requisição ativo ({@link RequestDeadlines}) a chamada roda em outra thread e a
+ * espera termina no prazo, em vez de no timeout/retries do provedor. Com {@code rag.hedging.enabled},
+ * uma chamada interativa que passa do percentil {@code rag.hedging.percentile} das latências recentes
+ * do agente é duplicada; vale a primeira resposta e a outra é cancelada.
+ */
+@ApplicationScoped
+public class AgentInvoker {
+
+    private static final Logger LOG = Logger.getLogger(AgentInvoker.class);
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    LlmAdmissionController admission;
+
+    @Inject
+    RequestDeadlines deadlines;
+
+    @Inject
+    PipelineTracing tracing;
+
+    // Todos os AI services usam o modelo de chat padrão
+    @ConfigProperty(name = "quarkus.langchain4j.openai.chat-model.model-name", defaultValue = "gpt-4o-mini")
+    String chatModel;
+
+    @ConfigProperty(name = "rag.hedging.enabled", defaultValue = "false")
+    boolean hedgingEnabled;
+
+    @ConfigProperty(name = "rag.hedging.percentile", defaultValue = "0.95")
+    double hedgingPercentile;
+
+    // Amostras mínimas do agente antes de confiar no percentil
+    @ConfigProperty(name = "rag.hedging.min-samples", defaultValue = "20")
+    int hedgingMinSamples;
+
+    @ConfigProperty(name = "rag.hedging.window", defaultValue = "200")
+    int hedgingWindow;
+
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = tracing.contextPropagating(Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "agent-call-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T> T call(String agent, Supplier<T> call) {
+        return metrics.timeAgentCall(agent, () -> invoke(agent, call));
+    }
+
+    private <T> T invoke(String agent, Supplier<T> call) {
+        deadlines.check(agent);
+        Supplier<T> attempt = recordingLatency(agent, () -> admission.execute(chatModel, call));
+
+        long hedgeDelay = hedgeDelayMillis(agent);
+        if (!deadlines.isActive() && hedgeDelay < 0) {
+            return attempt.get();
+        }
+        // Pipeline, agente e prioridade seguem para a thread da chamada (tokens e admissão)
+        return race(agent, metrics.propagating(admission.propagating(attempt)), hedgeDelay);
+    }
+
+    /**
+     * Espera a primeira tentativa bem-sucedida até o prazo, disparando a duplicata após {@code hedgeDelay} ms.
+     */
+    private <T> T race(String agent, Supplier<T> attempt, long hedgeDelay) {
+        CompletableFuture<Outcome<T>> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        List<Future<?>> attempts = new ArrayList<>(2);
+        attempts.add(launch(attempt, false, winner, pending));
+
+        try {
+            if (hedgeDelay >= 0 && deadlines.remainingMillis() > hedgeDelay) {
+                try {
+                    return winner.get(hedgeDelay, TimeUnit.MILLISECONDS).value();
+                } catch (TimeoutException e) {
+                    // Só duplica se a primeira tentativa ainda está em andamento (não falhou)
+                    if (pending.incrementAndGet() > 1) {
+                        LOG.debugf("[Hedging] %s slower than %dms, sending hedged request", agent, hedgeDelay);
+                        metrics.recordHedge(agent, "launched");
+                        attempts.add(launch(attempt, true, winner, pending));
+                    }
+                }
+            }
+
+            long remaining = deadlines.remainingMillis();
+            Outcome<T> outcome = remaining == Long.MAX_VALUE
+                ? winner.get()
+                : winner.get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+            if (outcome.hedge()) {
+                metrics.recordHedge(agent, "won");
+            }
+            return outcome.value();
+        } catch (TimeoutException e) {
+            LOG.warnf("[Deadline] %s did not answer before the request deadline", agent);
+            throw deadlines.exceeded(agent);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw deadlines.exceeded(agent);
+        } finally {
+            // Cancela a tentativa perdedora (ou todas, se o prazo venceu)
+            attempts.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> Future<?> launch(Supplier<T> attempt, boolean hedge, CompletableFuture<Outcome<T>> winner,
+                                 AtomicInteger pending) {
+        return executor.submit(() -> {
+            try {
+                winner.complete(new Outcome<>(attempt.get(), hedge));
+            } catch (Throwable e) {
+                if (pending.decrementAndGet() == 0) {
+                    winner.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private <T> Supplier<T> recordingLatency(String agent, Supplier<T> attempt) {
+        if (!hedgingEnabled) {
+            return attempt;
+        }
+        return () -> {
+            long start = System.nanoTime();
+            T result = attempt.get();
+            latencies.computeIfAbsent(agent, ignored -> new LatencyWindow(hedgingWindow))
+                .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        };
+    }
+
+    /**
+     * Atraso para duplicar a chamada, ou -1 sem hedging (desativado, BATCH ou poucas amostras).
+     */
+    private long hedgeDelayMillis(String agent) {
+        if (!hedgingEnabled || admission.currentPriority() != Priority.INTERACTIVE) {
+            return -1;
+        }
+        LatencyWindow window = latencies.get(agent);
+        if (window == null || window.size() < hedgingMinSamples) {
+            return -1;
+        }
+        return window.percentile(hedgingPercentile);
+    }
+
+    private record Outcome<T>(T value, boolean hedge) {}
+}
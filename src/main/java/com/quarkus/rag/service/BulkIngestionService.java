@@ -0,0 +1,516 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.dto.document.BulkUploadItem;
+import com.quarkus.rag.dto.document.BulkUploadReport;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.tracing.PipelineTracing;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Upload em massa: vários arquivos e/ou arquivos ZIP/TAR (.tar, .tar.gz, .tgz) numa única requisição.
+ *
+ * As entradas dos arquivos compactados são lidas em streaming, uma por vez, direto para memória
+ * (limitadas a {@code rag.ingestion.bulk.max-entry-size}), sem extrair o pacote em disco. As linhas de
+ * {@code documents} são inseridas em lotes JDBC de {@code rag.ingestion.bulk.insert-batch-size} e cada
+ * documento é ingerido por um pool de {@code rag.ingestion.bulk.workers} threads. O número de entradas
+ * em memória é limitado (workers + lote), então a leitura do pacote espera quando a ingestão atrasa.
+ *
+ * A requisição não roda numa transação única (cada lote de INSERTs commita sozinho, para não segurar
+ * uma conexão durante toda a ingestão): documentos cuja ingestão falha são removidos ao final, como no
+ * upload individual (rollback), e o resultado de cada arquivo vem no {@link BulkUploadReport}.
+ * O {@link CorpusChangedEvent} sai uma vez, com o total de segmentos, ao final da requisição.
+ *
+ * Arquivos de tipo que o {@link DocumentIngestionService} não lê são recusados antes do INSERT, assim como
+ * os que passam de {@code rag.ingestion.bulk.max-files} arquivos ou {@code rag.ingestion.bulk.max-total-size}
+ * bytes (já descompactados) na mesma requisição.
+ */
+@ApplicationScoped
+public class BulkIngestionService {
+
+    private static final Logger LOG = Logger.getLogger(BulkIngestionService.class);
+
+    private static final String INSERT_DOCUMENT = "INSERT INTO documents"
+        + " (file_name, content_type, file_size, uploaded_at, processed) VALUES (?, ?, ?, ?, false)";
+    private static final String MARK_PROCESSED = "UPDATE documents SET processed = true, content_hash = ? WHERE id = ?";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    DocumentIngestionService ingestionService;
+
+    @Inject
+    DocumentDeletionService deletionService;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    Event<CorpusChangedEvent> corpusChanged;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @ConfigProperty(name = "rag.ingestion.bulk.workers", defaultValue = "4")
+    int workers;
+
+    @ConfigProperty(name = "rag.ingestion.bulk.insert-batch-size", defaultValue = "50")
+    int insertBatchSize;
+
+    // Tamanho máximo de uma entrada de ZIP/TAR (lida inteira para memória)
+    @ConfigProperty(name = "rag.ingestion.bulk.max-entry-size", defaultValue = "50M")
+    MemorySize maxEntrySize;
+
+    // Limites da requisição inteira, contando as entradas dos pacotes
+    @ConfigProperty(name = "rag.ingestion.bulk.max-files", defaultValue = "1000")
+    int maxFiles;
+
+    @ConfigProperty(name = "rag.ingestion.bulk.max-total-size", defaultValue = "1G")
+    MemorySize maxTotalSize;
+
+    // Log de progresso a cada N documentos concluídos
+    @ConfigProperty(name = "rag.ingestion.bulk.progress-interval", defaultValue = "50")
+    int progressInterval;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = tracing.contextPropagating(Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "rag-bulk-ingestion-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Se os arquivos enviados, ainda compactados, já passam de {@code rag.ingestion.bulk.max-total-size}.
+     */
+    public boolean exceedsTotalSize(List<FileUpload> uploads) {
+        return uploads.stream().mapToLong(FileUpload::size).sum() > maxTotalSize.asLongValue();
+    }
+
+    public BulkUploadReport ingest(List<FileUpload> uploads) {
+        long start = System.nanoTime();
+        Run run = new Run(LocalDateTime.now());
+
+        for (FileUpload upload : uploads) {
+            try {
+                if (isArchive(upload.fileName())) {
+                    readArchive(upload, run);
+                } else {
+                    String contentType = contentType(upload.fileName(), upload.contentType());
+                    if (run.admit(upload.fileName(), contentType, upload.size())) {
+                        run.reserve();
+                        run.accept(new Entry(upload.fileName(), contentType, upload.size(), null,
+                            upload.uploadedFile()));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.warnf("[Bulk] Could not read %s: %s", upload.fileName(), e.getMessage());
+                run.fail(upload.fileName(), e);
+            }
+        }
+        run.flush();
+        return run.finish(start);
+    }
+
+    /**
+     * Percorre as entradas do pacote em streaming; diretórios e metadados (ex.: {@code __MACOSX}) são ignorados.
+     */
+    private void readArchive(FileUpload upload, Run run) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(upload.uploadedFile()));
+             ArchiveInputStream<? extends ArchiveEntry> archive = openArchive(upload.fileName(), raw)) {
+            ArchiveEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory() || isMetadataEntry(name)) {
+                    continue;
+                }
+                if (!archive.canReadEntryData(entry)) {
+                    run.fail(name, new IOException("Unsupported archive entry (encrypted or unknown compression)"));
+                    continue;
+                }
+                if (entry.getSize() > maxEntrySize.asLongValue()) {
+                    run.fail(name, new IOException("Entry larger than " + maxEntrySize.asLongValue() + " bytes"));
+                    continue;
+                }
+                String contentType = contentType(name, null);
+                if (!run.admit(name, contentType, Math.max(entry.getSize(), 0))) {
+                    continue;
+                }
+
+                run.reserve();
+                byte[] content;
+                try {
+                    content = readEntry(archive, entry.getSize(), maxEntrySize.asLongValue());
+                    if (entry.getSize() < 0) {
+                        // Tamanho só conhecido depois da leitura (ZIP com data descriptor)
+                        run.countBytes(content.length);
+                    }
+                } catch (IOException e) {
+                    run.release();
+                    run.fail(name, e);
+                    continue;
+                }
+                run.accept(new Entry(name, contentType, content.length, content, null));
+            }
+        }
+    }
+
+    private static ArchiveInputStream<? extends ArchiveEntry> openArchive(String fileName, InputStream in)
+            throws IOException {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".zip")) {
+            return new ZipArchiveInputStream(in);
+        }
+        if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            return new TarArchiveInputStream(new GZIPInputStream(in));
+        }
+        return new TarArchiveInputStream(in);
+    }
+
+    static boolean isArchive(String fileName) {
+        if (fileName == null) {
+            return false;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".tar") || name.endsWith(".tar.gz") || name.endsWith(".tgz");
+    }
+
+    private static boolean isMetadataEntry(String name) {
+        String base = name.substring(name.lastIndexOf('/') + 1);
+        return name.startsWith("__MACOSX/") || base.startsWith("._") || base.startsWith(".") || base.isEmpty();
+    }
+
+    /**
+     * Content type declarado no multipart ou, se ausente/genérico (sempre nas entradas de pacotes), pela extensão.
+     * Extensões desconhecidas ficam com {@code application/octet-stream}, que o {@link Run#admit} recusa.
+     */
+    static String contentType(String fileName, String declared) {
+        if (declared != null && !declared.isBlank() && !DEFAULT_CONTENT_TYPE.equalsIgnoreCase(declared)) {
+            return declared;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        if (name.endsWith(".docx")) {
+            return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+        }
+        if (name.endsWith(".doc")) {
+            return "application/msword";
+        }
+        if (name.endsWith(".txt")) {
+            return "text/plain";
+        }
+        if (name.endsWith(".md")) {
+            return "text/markdown";
+        }
+        if (name.endsWith(".csv")) {
+            return "text/csv";
+        }
+        return DEFAULT_CONTENT_TYPE;
+    }
+
+    /**
+     * Lê a entrada corrente do pacote: direto num array do tamanho exato quando o cabeçalho informa o tamanho
+     * (TAR e a maioria dos ZIP), senão em buffer crescente até {@code limit}.
+     */
+    private static byte[] readEntry(InputStream in, long declaredSize, long limit) throws IOException {
+        if (declaredSize >= 0) {
+            byte[] content = new byte[(int) declaredSize];
+            int read = in.readNBytes(content, 0, content.length);
+            if (read != content.length) {
+                throw new IOException("Truncated entry: expected " + declaredSize + " bytes, got " + read);
+            }
+            return content;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            total += read;
+            if (total > limit) {
+                throw new IOException("Entry larger than " + limit + " bytes");
+            }
+            buffer.write(chunk, 0, read);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Insere as linhas num único lote JDBC (uma transação) e devolve os ids gerados, na ordem das entradas.
+     */
+    private List<Long> insertDocuments(List<Entry> entries, LocalDateTime uploadedAt) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(INSERT_DOCUMENT, new String[] {"id"})) {
+                Timestamp timestamp = Timestamp.valueOf(uploadedAt);
+                for (Entry entry : entries) {
+                    statement.setString(1, entry.fileName());
+                    statement.setString(2, entry.contentType());
+                    statement.setLong(3, entry.size());
+                    statement.setTimestamp(4, timestamp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> ids = new ArrayList<>(entries.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != entries.size()) {
+                    throw new IllegalStateException("Expected " + entries.size() + " generated ids, got " + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    /**
+     * Marca os documentos ingeridos como processados e grava o hash, em lotes JDBC.
+     */
+    private void markProcessed(Map<Long, String> hashes) {
+        List<Map.Entry<Long, String>> rows = List.copyOf(hashes.entrySet());
+        for (int start = 0; start < rows.size(); start += insertBatchSize) {
+            List<Map.Entry<Long, String>> chunk = rows.subList(start, Math.min(start + insertBatchSize, rows.size()));
+            QuarkusTransaction.requiringNew().run(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement statement = connection.prepareStatement(MARK_PROCESSED)) {
+                    for (Map.Entry<Long, String> row : chunk) {
+                        statement.setString(1, row.getValue());
+                        statement.setLong(2, row.getKey());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not mark documents as processed: " + e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Estado de uma requisição de upload em massa.
+     */
+    private final class Run {
+
+        private final LocalDateTime uploadedAt;
+        // Entradas lidas e ainda não ingeridas (pendentes de insert ou na fila do pool)
+        private final Semaphore inMemory = new Semaphore(workers + insertBatchSize);
+        private final List<Entry> pending = new ArrayList<>(insertBatchSize);
+        private final List<Future<?>> tasks = new ArrayList<>();
+        private final List<BulkUploadItem> items = Collections.synchronizedList(new ArrayList<>());
+        // id -> SHA-256 dos documentos ingeridos
+        private final Map<Long, String> succeeded = new ConcurrentHashMap<>();
+        private final List<Long> failed = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicLong segments = new AtomicLong();
+        // Arquivos e bytes aceitos até agora, contra os limites da requisição
+        private int admitted;
+        private long admittedBytes;
+
+        Run(LocalDateTime uploadedAt) {
+            this.uploadedAt = uploadedAt;
+        }
+
+        /**
+         * Aceita o arquivo se o tipo é suportado e a requisição ainda cabe nos limites; senão registra a falha
+         * (sem linha em {@code documents}) e devolve {@code false}.
+         */
+        boolean admit(String fileName, String contentType, long size) {
+            if (!DocumentIngestionService.isSupported(contentType)) {
+                fail(fileName, new IOException("Unsupported file type: " + contentType));
+                return false;
+            }
+            if (admitted >= maxFiles) {
+                fail(fileName, new IOException("Request exceeds " + maxFiles + " files"));
+                return false;
+            }
+            if (admittedBytes + size > maxTotalSize.asLongValue()) {
+                fail(fileName, new IOException("Request exceeds " + maxTotalSize.asLongValue() + " bytes"));
+                return false;
+            }
+            admitted++;
+            admittedBytes += size;
+            return true;
+        }
+
+        void countBytes(long size) {
+            admittedBytes += size;
+        }
+
+        void reserve() {
+            try {
+                inMemory.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for ingestion workers", e);
+            }
+        }
+
+        void release() {
+            inMemory.release();
+        }
+
+        void accept(Entry entry) {
+            pending.add(entry);
+            if (pending.size() >= insertBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Entry> batch = List.copyOf(pending);
+            pending.clear();
+
+            List<Long> ids;
+            try {
+                ids = metrics.timeIngestionPhase("insert", () -> insertDocuments(batch, uploadedAt));
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "[Bulk] Could not insert %d document rows", batch.size());
+                batch.forEach(entry -> {
+                    fail(entry.fileName(), e);
+                    release();
+                });
+                return;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                Entry entry = batch.get(i);
+                Long id = ids.get(i);
+                tasks.add(executor.submit(() -> ingest(entry, id)));
+            }
+        }
+
+        private void ingest(Entry entry, Long id) {
+            try (UploadedContent content = entry.open()) {
+                // Sem evento por documento: manutenção do índice e FAQ rodariam a cada arquivo do lote
+                DocumentIngestionService.IngestionResult result = ingestionService.ingestDocument(content, id,
+                    entry.fileName(), entry.contentType(), uploadedAt, false);
+                segments.addAndGet(result.segments());
+                succeeded.put(id, result.sha256());
+                items.add(BulkUploadItem.ingested(entry.fileName(), id, result.segments()));
+            } catch (Exception e) {
+                LOG.warnf("[Bulk] Ingestion of %s failed: %s", entry.fileName(), e.getMessage());
+                failed.add(id);
+                items.add(BulkUploadItem.failed(entry.fileName(), e.getMessage()));
+            } finally {
+                release();
+                int done = completed.incrementAndGet();
+                if (done % progressInterval == 0) {
+                    LOG.infof("[Bulk] Progress: %d documents done (%d failed), %d segments",
+                        done, failed.size(), segments.get());
+                }
+            }
+        }
+
+        void fail(String fileName, Exception error) {
+            items.add(BulkUploadItem.failed(fileName, error.getMessage()));
+        }
+
+        /**
+         * Espera os workers, marca/remove as linhas e monta o relatório; a duração vai de {@code startNanos}
+         * até o fim de tudo isso.
+         */
+        BulkUploadReport finish(long startNanos) {
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for bulk ingestion", e);
+                } catch (ExecutionException e) {
+                    // ingest() registra as próprias falhas; não deveria chegar aqui
+                    LOG.error("[Bulk] Unexpected ingestion error", e.getCause());
+                }
+            }
+
+            if (!succeeded.isEmpty()) {
+                markProcessed(succeeded);
+            }
+            if (!failed.isEmpty()) {
+                // Mesmo efeito do rollback do upload individual: sem linha (nem segmentos) para o que falhou
+                deletionService.deleteDocuments(List.copyOf(failed));
+            }
+            if (segments.get() > 0) {
+                corpusChanged.fireAsync(CorpusChangedEvent.added((int) Math.min(segments.get(), Integer.MAX_VALUE)));
+            }
+
+            List<BulkUploadItem> report = List.copyOf(items);
+            int ok = (int) report.stream().filter(item -> BulkUploadItem.INGESTED.equals(item.status())).count();
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            LOG.infof("[Bulk] Finished: %d files, %d ingested, %d failed, %d segments in %dms",
+                report.size(), ok, report.size() - ok, segments.get(), durationMs);
+            return new BulkUploadReport(report.size(), ok, report.size() - ok, segments.get(), durationMs, report);
+        }
+    }
+
+    /**
+     * Arquivo a ingerir: conteúdo em memória (entrada de pacote) ou o arquivo temporário do multipart,
+     * mapeado só na thread de ingestão.
+     */
+    private record Entry(String fileName, String contentType, long size, byte[] content, Path file) {
+
+        UploadedContent open() throws IOException {
+            return content != null ? UploadedContent.of(content) : UploadedContent.map(file);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.metrics.PipelineMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Monta o contexto enviado aos agentes a partir dos segmentos recuperados.
+ *
+ * Etapas:
+ * 1. Remove a sobreposição entre segmentos vizinhos (overlap do splitter), nos dois sentidos
+ * 2. Descarta segmentos quase duplicados (containment de shingles de palavras)
+ * 3. Opcionalmente mantém apenas os trechos que contêm termos da pergunta
+ * 4. Aplica o orçamento de tokens de cada agente, na ordem de relevância
+ *
+ * Como o orçamento é aplicado sempre na mesma ordem, o contexto de um orçamento menor é
+ * prefixo do contexto de um orçamento maior.
+ */
+@ApplicationScoped
+public class ContextAssemblyService {
+
+    static final String SEPARATOR = "\n\n";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+");
+
+    // Overlap mínimo (em palavras) para considerar que dois segmentos são vizinhos
+    private static final int MIN_OVERLAP_WORDS = 5;
+    private static final int SHINGLE_SIZE = 5;
+    // Segmentos sem pontuação (texto pré-processado) são divididos em janelas de palavras
+    private static final int PASSAGE_WORDS = 40;
+
+    @Inject
+    TokenCounter tokenCounter;
+
+    @Inject
+    TextPreprocessingService textPreprocessingService;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    Config config;
+
+    @ConfigProperty(name = "rag.context.compression.enabled", defaultValue = "true")
+    boolean compressionEnabled;
+
+    @ConfigProperty(name = "rag.context.near-duplicate-threshold", defaultValue = "0.8")
+    double nearDuplicateThreshold;
+
+    @ConfigProperty(name = "rag.context.extract-relevant", defaultValue = "false")
+    boolean extractRelevant;
+
+    @ConfigProperty(name = "rag.context.budget.default", defaultValue = "2000")
+    int defaultBudget;
+
+    /**
+     * Deduplica e (opcionalmente) filtra os segmentos. O resultado é reutilizado para todos os agentes.
+     */
+    public AssembledContext assemble(String question, List<String> relevantDocs) {
+        int rawTokens = tokenCounter.count(String.join(SEPARATOR, relevantDocs));
+        if (!compressionEnabled) {
+            return new AssembledContext(List.copyOf(relevantDocs), rawTokens);
+        }
+
+        List<String> passages = removeNearDuplicates(removeOverlaps(relevantDocs));
+        if (extractRelevant) {
+            passages = extractRelevantPassages(question, passages);
+        }
+        return new AssembledContext(passages, rawTokens);
+    }
+
+    /**
+     * Contexto para um agente, limitado a {@code rag.context.budget.<agente>} tokens.
+     */
+    public String contextFor(AssembledContext assembled, String agent) {
+        int budget = config.getOptionalValue("rag.context.budget." + agent, Integer.class).orElse(defaultBudget);
+        String context = compressionEnabled
+            ? applyBudget(assembled.passages(), budget)
+            : String.join(SEPARATOR, assembled.passages());
+        metrics.recordContextTokens(agent, assembled.rawTokens(), tokenCounter.count(context));
+        return context;
+    }
+
+    /**
+     * Remove de cada segmento o prefixo que repete o final de um segmento já aceito e o sufixo que repete
+     * o início de um. Os segmentos chegam por relevância, então o vizinho posterior de um par pode vir
+     * antes do anterior; por isso as duas direções.
+     */
+    List<String> removeOverlaps(List<String> docs) {
+        List<String[]> kept = new ArrayList<>();
+        List<String> result = new ArrayList<>();
+
+        for (String doc : docs) {
+            String[] words = words(doc);
+            int skip = 0;
+            int trim = 0;
+            for (String[] previous : kept) {
+                skip = Math.max(skip, overlapLength(previous, words));
+                trim = Math.max(trim, overlapLength(words, previous));
+            }
+            if (skip + trim >= words.length) {
+                continue;
+            }
+            String[] remaining = Arrays.copyOfRange(words, skip, words.length - trim);
+            kept.add(words);
+            result.add(skip == 0 && trim == 0 ? doc.trim() : String.join(" ", remaining));
+        }
+        return result;
+    }
+
+    /**
+     * Descarta segmentos cujos shingles já estão majoritariamente cobertos pelos anteriores.
+     */
+    List<String> removeNearDuplicates(List<String> docs) {
+        Set<String> seenShingles = new HashSet<>();
+        List<String> result = new ArrayList<>();
+
+        for (String doc : docs) {
+            Set<String> shingles = shingles(words(doc.toLowerCase()));
+            if (!shingles.isEmpty()) {
+                long covered = shingles.stream().filter(seenShingles::contains).count();
+                if ((double) covered / shingles.size() >= nearDuplicateThreshold) {
+                    continue;
+                }
+            }
+            seenShingles.addAll(shingles);
+            result.add(doc);
+        }
+        return result;
+    }
+
+    /**
+     * Mantém apenas frases (ou janelas de palavras) com algum termo da pergunta.
+     * Se nada casar, devolve os segmentos originais.
+     */
+    List<String> extractRelevantPassages(String question, List<String> docs) {
+        Set<String> queryTerms = new HashSet<>(Arrays.asList(words(textPreprocessingService.preprocessForQuery(question))));
+        if (queryTerms.isEmpty()) {
+            return docs;
+        }
+
+        List<String> result = new ArrayList<>();
+        for (String doc : docs) {
+            List<String> relevant = new ArrayList<>();
+            for (String passage : passages(doc)) {
+                String normalized = textPreprocessingService.preprocessForQuery(passage);
+                for (String term : words(normalized)) {
+                    if (queryTerms.contains(term)) {
+                        relevant.add(passage);
+                        break;
+                    }
+                }
+            }
+            if (!relevant.isEmpty()) {
+                result.add(String.join(" ", relevant));
+            }
+        }
+        return result.isEmpty() ? docs : result;
+    }
+
+    /**
+     * Adiciona trechos em ordem de relevância até o orçamento; o último é truncado por palavras.
+     */
+    String applyBudget(List<String> passages, int budget) {
+        StringBuilder context = new StringBuilder();
+        int used = 0;
+
+        for (String passage : passages) {
+            String candidate = context.length() == 0 ? passage : SEPARATOR + passage;
+            int tokens = tokenCounter.count(candidate);
+            if (used + tokens <= budget) {
+                context.append(candidate);
+                used += tokens;
+                continue;
+            }
+            String truncated = truncateToTokens(candidate, budget - used);
+            if (!truncated.isBlank()) {
+                context.append(truncated);
+            }
+            break;
+        }
+        return context.toString();
+    }
+
+    private String truncateToTokens(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        String[] words = text.split(" ");
+        int low = 0;
+        int high = words.length;
+        // Busca binária pelo maior prefixo de palavras que cabe no orçamento
+        while (low < high) {
+            int mid = (low + high + 1) / 2;
+            if (tokenCounter.count(String.join(" ", Arrays.copyOfRange(words, 0, mid))) <= maxTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return String.join(" ", Arrays.copyOfRange(words, 0, low));
+    }
+
+    /**
+     * Maior k tal que as últimas k palavras de {@code previous} são as primeiras k de {@code current}.
+     */
+    private static int overlapLength(String[] previous, String[] current) {
+        int max = Math.min(previous.length, current.length);
+        for (int k = max; k >= MIN_OVERLAP_WORDS; k--) {
+            boolean matches = true;
+            for (int i = 0; i < k; i++) {
+                if (!previous[previous.length - k + i].equals(current[i])) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return k;
+            }
+        }
+        return 0;
+    }
+
+    private static List<String> passages(String doc) {
+        String[] sentences = SENTENCE_END.split(doc.trim());
+        if (sentences.length > 1) {
+            return Arrays.asList(sentences);
+        }
+        String[] words = words(doc);
+        List<String> windows = new ArrayList<>();
+        for (int start = 0; start < words.length; start += PASSAGE_WORDS) {
+            windows.add(String.join(" ", Arrays.copyOfRange(words, start, Math.min(words.length, start + PASSAGE_WORDS))));
+        }
+        return windows;
+    }
+
+    private static Set<String> shingles(String[] words) {
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + SHINGLE_SIZE <= words.length; i++) {
+            shingles.add(String.join(" ", Arrays.copyOfRange(words, i, i + SHINGLE_SIZE)));
+        }
+        return shingles;
+    }
+
+    private static String[] words(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        return trimmed.isEmpty() ? new String[0] : WHITESPACE.split(trimmed);
+    }
+
+    /**
+     * Segmentos já deduplicados, em ordem de relevância, e o total de tokens antes da compressão.
+     */
+    public record AssembledContext(List<String> passages, int rawTokens) {
+
+        public boolean isEmpty() {
+            return passages.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.quarkus.rag.service;
+
+/**
+ * Evento CDI disparado (assíncrono) quando segmentos são adicionados ou removidos do embedding store.
+ *
+ * @param segmentsAdded   segmentos inseridos
+ * @param segmentsRemoved segmentos removidos
+ */
+public record CorpusChangedEvent(int segmentsAdded, int segmentsRemoved) {
+
+    public static CorpusChangedEvent added(int segments) {
+        return new CorpusChangedEvent(segments, 0);
+    }
+
+    public static CorpusChangedEvent removed(int segments) {
+        return new CorpusChangedEvent(0, segments);
+    }
+}
@@ -0,0 +1,209 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.dto.document.DeletionResult;
+import com.quarkus.rag.repository.DocumentRepository;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Remoção de documentos junto com os seus segmentos no embedding store.
+ *
+ * Os segmentos são ligados ao documento pelo {@code document_id} do metadata (gravado na ingestão)
+ * e apagados em lotes de {@code rag.embeddings.delete-batch-size} linhas, na mesma transação da
+ * linha em {@code documents}: ou somem os dois, ou nenhum. Uma compactação periódica remove
+ * segmentos cujo documento não existe mais (ex.: apagados antes desta rotina) e roda
+ * {@code VACUUM ANALYZE} para o índice acompanhar o corpus vivo.
+ */
+@ApplicationScoped
+public class DocumentDeletionService {
+
+    private static final Logger LOG = Logger.getLogger(DocumentDeletionService.class);
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    // Documentos por transação na remoção em massa
+    private static final int DOCUMENTS_PER_TRANSACTION = 100;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    DocumentRepository documentRepository;
+
+    @Inject
+    Event<CorpusChangedEvent> corpusChanged;
+
+    @ConfigProperty(name = "quarkus.langchain4j.pgvector.table", defaultValue = "embeddings")
+    String table;
+
+    @ConfigProperty(name = "rag.embeddings.delete-batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "rag.embeddings.compaction.enabled", defaultValue = "true")
+    boolean compactionEnabled;
+
+    @ConfigProperty(name = "rag.embeddings.compaction.vacuum", defaultValue = "true")
+    boolean vacuum;
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            ensureDocumentIdIndex();
+        } catch (RuntimeException e) {
+            LOG.warn("[Embeddings] Could not create document_id index, deletes will scan the table", e);
+        }
+    }
+
+    @Scheduled(every = "${rag.embeddings.compaction.interval:1h}", delayed = "5m",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledCompaction() {
+        if (compactionEnabled) {
+            compactOrphans();
+        }
+    }
+
+    /**
+     * Remove o documento e os seus segmentos; {@code false} se o documento não existe.
+     */
+    public boolean deleteDocument(Long id) {
+        return deleteDocuments(List.of(id)).documentsDeleted() > 0;
+    }
+
+    /**
+     * Remove os documentos e os seus segmentos, {@value #DOCUMENTS_PER_TRANSACTION} documentos por transação.
+     */
+    public DeletionResult deleteDocuments(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        long documents = 0;
+        long segments = 0;
+        for (int start = 0; start < distinct.size(); start += DOCUMENTS_PER_TRANSACTION) {
+            List<Long> chunk = distinct.subList(start, Math.min(start + DOCUMENTS_PER_TRANSACTION, distinct.size()));
+            DeletionResult result = QuarkusTransaction.requiringNew().call(() -> new DeletionResult(
+                documentRepository.delete("id in ?1", chunk),
+                withConnection(connection -> deleteSegments(connection, chunk))));
+            documents += result.documentsDeleted();
+            segments += result.segmentsDeleted();
+        }
+
+        LOG.infof("[Embeddings] Deleted %d documents and %d segments", documents, segments);
+        if (segments > 0) {
+            corpusChanged.fireAsync(CorpusChangedEvent.removed((int) Math.min(segments, Integer.MAX_VALUE)));
+        }
+        return new DeletionResult(documents, segments);
+    }
+
+    /**
+     * Remove segmentos cujo {@code document_id} não existe mais em {@code documents}. Cada lote é
+     * confirmado separadamente, para não segurar locks na tabela inteira.
+     */
+    public DeletionResult compactOrphans() {
+        long removed = withConnection(connection -> {
+            if (!tableExists(connection)) {
+                return 0L;
+            }
+            String sql = "DELETE FROM " + table + " WHERE embedding_id IN (SELECT e.embedding_id FROM " + table + " e"
+                + " WHERE e.metadata->>'" + SegmentMetadata.DOCUMENT_ID + "' IS NOT NULL"
+                + " AND NOT EXISTS (SELECT 1 FROM documents d"
+                + " WHERE d.id = (e.metadata->>'" + SegmentMetadata.DOCUMENT_ID + "')::bigint) LIMIT ?)";
+            long total = 0;
+            int deleted;
+            do {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setInt(1, batchSize);
+                    deleted = statement.executeUpdate();
+                }
+                total += deleted;
+            } while (deleted == batchSize);
+
+            if (total > 0 && vacuum) {
+                // Fora de transação (autocommit): devolve o espaço das linhas mortas ao índice
+                execute(connection, "VACUUM ANALYZE " + table);
+            }
+            return total;
+        });
+
+        if (removed > 0) {
+            LOG.infof("[Embeddings] Compaction removed %d orphan segments", removed);
+            corpusChanged.fireAsync(CorpusChangedEvent.removed((int) Math.min(removed, Integer.MAX_VALUE)));
+        }
+        return new DeletionResult(0, removed);
+    }
+
+    private long deleteSegments(Connection connection, List<Long> documentIds) throws SQLException {
+        if (!tableExists(connection)) {
+            return 0;
+        }
+        String sql = "DELETE FROM " + table + " WHERE embedding_id IN (SELECT embedding_id FROM " + table
+            + " WHERE (metadata->>'" + SegmentMetadata.DOCUMENT_ID + "')::bigint = ANY(?) LIMIT ?)";
+        long total = 0;
+        int deleted;
+        do {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setArray(1, connection.createArrayOf("bigint", documentIds.toArray()));
+                statement.setInt(2, batchSize);
+                deleted = statement.executeUpdate();
+            }
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+
+    /**
+     * Índice de expressão sobre o {@code document_id} do metadata, usado pelos deletes e pela compactação.
+     */
+    private void ensureDocumentIdIndex() {
+        withConnection(connection -> {
+            if (tableExists(connection)) {
+                execute(connection, "CREATE INDEX IF NOT EXISTS " + table + "_document_id_idx ON " + table
+                    + " (((metadata->>'" + SegmentMetadata.DOCUMENT_ID + "')::bigint))");
+            }
+            return null;
+        });
+    }
+
+    private boolean tableExists(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private <T> T withConnection(SqlFunction<T> work) {
+        if (!IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalStateException("Invalid pgvector table name: " + table);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return work.apply(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Embedding deletion failed: " + e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+}
@@ -1,25 +1,37 @@
 package com.quarkus.rag.service;
 
+import com.quarkus.rag.metrics.PipelineMetrics;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
-import dev.langchain4j.data.document.parser.TextDocumentParser;
-import dev.langchain4j.data.document.parser.apache.pdfbox.ApachePdfBoxDocumentParser;
 import dev.langchain4j.data.document.parser.apache.poi.ApachePoiDocumentParser;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 @ApplicationScoped
 public class DocumentIngestionService {
 
+    public static final String SPLITTER_RECURSIVE = "recursive";
+    public static final String SPLITTER_TOKEN = "token";
+    public static final String SPLITTER_SEMANTIC = "semantic";
+
     @Inject
     EmbeddingModel embeddingModel;
 
@@ -29,19 +41,73 @@ public class DocumentIngestionService {
     @Inject
     TextPreprocessingService textPreprocessingService;
 
+    @Inject
+    TokenCounter tokenCounter;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    Event<CorpusChangedEvent> corpusChanged;
+
     @ConfigProperty(name = "quarkus.langchain4j.easy-rag.max-segment-size", defaultValue = "1000")
     int maxSegmentSize;
 
     @ConfigProperty(name = "quarkus.langchain4j.easy-rag.max-overlap-size", defaultValue = "200")
     int maxOverlapSize;
 
-    public void ingestDocument(InputStream inputStream, String fileName, String contentType) {
+    // recursive (caracteres, easy-rag), token (tokens do modelo) ou semantic (tokens + títulos/parágrafos)
+    @ConfigProperty(name = "rag.ingestion.splitter", defaultValue = SPLITTER_RECURSIVE)
+    String splitterMode;
+
+    @ConfigProperty(name = "rag.ingestion.splitter.max-tokens", defaultValue = "200")
+    int maxSegmentTokens;
+
+    @ConfigProperty(name = "rag.ingestion.splitter.overlap-tokens", defaultValue = "30")
+    int overlapTokens;
+
+    /**
+     * Ingere o documento gravando {@code document_id}, {@code file_name}, {@code content_type}
+     * e {@code uploaded_at} em cada segmento, para permitir buscas filtradas.
+     *
+     * O conteúdo é lido direto do {@link UploadedContent} (arquivo mapeado ou bytes de um pacote),
+     * sem cópia intermediária no heap; o SHA-256 sai do mesmo buffer.
+     */
+    public IngestionResult ingestDocument(UploadedContent content, Long documentId, String fileName,
+                                          String contentType, LocalDateTime uploadedAt) {
+        return ingestDocument(content, documentId, fileName, contentType, uploadedAt, true);
+    }
+
+    /**
+     * Com {@code notifyCorpusChange=false} não dispara o {@link CorpusChangedEvent}: quem ingere em lote
+     * dispara um único evento com o total ao final.
+     */
+    public IngestionResult ingestDocument(UploadedContent content, Long documentId, String fileName,
+                                          String contentType, LocalDateTime uploadedAt, boolean notifyCorpusChange) {
         // Parse document based on type
-        Document document = parseDocument(inputStream, fileName, contentType);
+        Document document = metrics.timeIngestionPhase("parse", () -> parseDocument(content, contentType));
+
+        List<TextSegment> segments = SPLITTER_RECURSIVE.equalsIgnoreCase(splitterMode)
+            ? splitRecursive(document, documentId, fileName, contentType, uploadedAt)
+            : splitByTokens(document, documentId, fileName, contentType, uploadedAt);
+
+        // Embed and store (mesmas etapas do EmbeddingStoreIngestor, medidas separadamente)
+        List<Embedding> embeddings = metrics.timeIngestionPhase("embed",
+            () -> embeddingModel.embedAll(segments).content());
+        metrics.timeIngestionPhase("store", () -> embeddingStore.addAll(embeddings, segments));
+
+        if (notifyCorpusChange) {
+            corpusChanged.fireAsync(CorpusChangedEvent.added(segments.size()));
+        }
+        return new IngestionResult(segments.size(), content.sha256());
+    }
 
+    private List<TextSegment> splitRecursive(Document document, Long documentId, String fileName,
+                                             String contentType, LocalDateTime uploadedAt) {
         // Pré-processar o texto do documento
         String originalText = document.text();
-        String preprocessedText = textPreprocessingService.preprocessForEmbedding(originalText);
+        String preprocessedText = metrics.timeIngestionPhase("preprocess",
+            () -> textPreprocessingService.preprocessForEmbedding(originalText));
 
         // Validar se o texto processado é adequado
         if (!textPreprocessingService.isValidForEmbedding(preprocessedText)) {
@@ -50,33 +116,77 @@ public class DocumentIngestionService {
 
         // Criar novo documento com texto pré-processado
         Document processedDocument = Document.from(preprocessedText, document.metadata());
+        SegmentMetadata.apply(processedDocument.metadata(), documentId, fileName, contentType, uploadedAt);
 
         // Split document into segments using configured values
         DocumentSplitter splitter = DocumentSplitters.recursive(
             maxSegmentSize,
             maxOverlapSize
         );
+        return metrics.timeIngestionPhase("split", () -> splitter.split(processedDocument));
+    }
 
-        // Create ingestor and ingest
-        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
-            .embeddingModel(embeddingModel)
-            .embeddingStore(embeddingStore)
-            .documentSplitter(splitter)
-            .build();
+    /**
+     * Split medido em tokens: a estrutura vem do texto original e o pré-processamento é aplicado
+     * frase a frase pelo splitter (a fase {@code split} inclui o pré-processamento).
+     */
+    private List<TextSegment> splitByTokens(Document document, Long documentId, String fileName,
+                                            String contentType, LocalDateTime uploadedAt) {
+        SegmentMetadata.apply(document.metadata(), documentId, fileName, contentType, uploadedAt);
+        DocumentSplitter splitter = new TokenAwareSplitter(tokenCounter::count,
+            textPreprocessingService::preprocessForEmbedding, maxSegmentTokens, overlapTokens,
+            SPLITTER_SEMANTIC.equalsIgnoreCase(splitterMode));
+        List<TextSegment> segments = metrics.timeIngestionPhase("split", () -> splitter.split(document));
+
+        int length = segments.stream().mapToInt(segment -> segment.text().length()).sum();
+        if (length < 10) {
+            throw new IllegalArgumentException("Documento não contém texto válido após pré-processamento");
+        }
+        return segments;
+    }
 
-        ingestor.ingest(processedDocument);
+    /**
+     * Content types que {@link #parseDocument} sabe ler: PDF, Word (.docx/.doc) e qualquer {@code text/*}.
+     */
+    public static boolean isSupported(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).strip();
+        }
+        return type.equals("application/pdf")
+            || type.equals("application/vnd.openxmlformats-officedocument.wordprocessingml.document")
+            || type.equals("application/msword")
+            || type.startsWith("text/");
     }
 
-    private Document parseDocument(InputStream inputStream, String fileName, String contentType) {
+    private Document parseDocument(UploadedContent content, String contentType) {
         return switch (contentType.toLowerCase()) {
-            case "application/pdf" -> new ApachePdfBoxDocumentParser().parse(inputStream);
+            case "application/pdf" -> parsePdf(content);
             case "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
-                 "application/msword" -> new ApachePoiDocumentParser().parse(inputStream);
-            case "text/plain" -> new TextDocumentParser().parse(inputStream);
-            default -> {
-                yield new TextDocumentParser().parse(inputStream);
-            }
+                 "application/msword" -> new ApachePoiDocumentParser().parse(content.inputStream());
+            // Texto: decodificado direto do buffer, com o hash na mesma passada
+            default -> Document.from(content.readText(StandardCharsets.UTF_8));
         };
     }
+
+    /**
+     * PDFBox com acesso aleatório sobre o buffer (sem o {@code readAllBytes} do parser do LangChain4j).
+     */
+    private Document parsePdf(UploadedContent content) {
+        try (PDDocument pdf = Loader.loadPDF(new RandomAccessReadBuffer(content.buffer()))) {
+            return Document.from(new PDFTextStripper().getText(pdf));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not parse PDF: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Segmentos gravados e SHA-256 do arquivo ingerido.
+     */
+    public record IngestionResult(int segments, String sha256) {}
 }
 
@@ -0,0 +1,83 @@
+package com.quarkus.rag.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Score local (sem LLM) de quanto uma resposta está apoiada no contexto que o agente recebeu.
+ *
+ * Resposta e contexto passam pelo mesmo pré-processamento do embedding (stopwords e stemming); o score
+ * combina a fração dos termos da resposta que aparecem no contexto com a fração dos pares de termos
+ * consecutivos (dentro de uma frase) que também aparecem juntos no contexto — o segundo pega afirmações
+ * que misturam termos do contexto de um jeito que ele não sustenta. Vai de 0 a 1.
+ */
+@ApplicationScoped
+public class GroundednessScorer {
+
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?;:])\\s+|\\n+");
+    private static final double TERM_WEIGHT = 0.6;
+
+    @Inject
+    TextPreprocessingService textPreprocessingService;
+
+    public double score(String answer, String context) {
+        if (answer == null || answer.isBlank() || context == null || context.isBlank()) {
+            return 0.0;
+        }
+
+        List<String> contextTerms = terms(context);
+        Set<String> vocabulary = new HashSet<>(contextTerms);
+        Set<String> pairs = new HashSet<>();
+        for (int i = 1; i < contextTerms.size(); i++) {
+            pairs.add(contextTerms.get(i - 1) + ' ' + contextTerms.get(i));
+        }
+
+        int terms = 0;
+        int supportedTerms = 0;
+        int answerPairs = 0;
+        int supportedPairs = 0;
+        for (String sentence : SENTENCE_END.split(answer)) {
+            List<String> sentenceTerms = terms(sentence);
+            for (int i = 0; i < sentenceTerms.size(); i++) {
+                terms++;
+                if (vocabulary.contains(sentenceTerms.get(i))) {
+                    supportedTerms++;
+                }
+                if (i > 0) {
+                    answerPairs++;
+                    if (pairs.contains(sentenceTerms.get(i - 1) + ' ' + sentenceTerms.get(i))) {
+                        supportedPairs++;
+                    }
+                }
+            }
+        }
+        if (terms == 0) {
+            return 0.0;
+        }
+
+        double termPrecision = (double) supportedTerms / terms;
+        if (answerPairs == 0) {
+            return termPrecision;
+        }
+        return TERM_WEIGHT * termPrecision + (1 - TERM_WEIGHT) * supportedPairs / answerPairs;
+    }
+
+    /**
+     * Texto do campo {@code validation} quando Validator e Coordinator são dispensados pelo score.
+     */
+    public static String earlyExitMessage(double score) {
+        return String.format(Locale.ROOT,
+            "Validação dispensada: resposta fundamentada no contexto (groundedness %.2f).", score);
+    }
+
+    private List<String> terms(String text) {
+        String processed = textPreprocessingService.preprocessForEmbedding(text);
+        return processed.isBlank() ? List.of() : List.of(processed.split(" "));
+    }
+}
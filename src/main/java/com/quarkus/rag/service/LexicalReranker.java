@@ -0,0 +1,105 @@
+package com.quarkus.rag.service;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Re-ranker lexical (BM25 sobre os candidatos) combinado com o score vetorial.
+ *
+ * Serve como substituto local de um cross-encoder: a pergunta e os segmentos passam pelo
+ * mesmo pré-processamento (stemming/stopwords) e o BM25 é calculado apenas sobre o conjunto
+ * de candidatos, sem índice externo.
+ */
+@ApplicationScoped
+public class LexicalReranker implements Reranker {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Inject
+    TextPreprocessingService textPreprocessingService;
+
+    // Peso do score vetorial na combinação (o restante vai para o BM25 normalizado)
+    @ConfigProperty(name = "rag.retrieval.reranker.vector-weight", defaultValue = "0.5")
+    double vectorWeight;
+
+    @Override
+    public String name() {
+        return "lexical";
+    }
+
+    @Override
+    public List<EmbeddingMatch<TextSegment>> rerank(String query, List<EmbeddingMatch<TextSegment>> candidates) {
+        Set<String> queryTerms = new HashSet<>(tokens(textPreprocessingService.preprocessForQuery(query)));
+        if (queryTerms.isEmpty() || candidates.isEmpty()) {
+            return candidates;
+        }
+
+        List<List<String>> documents = new ArrayList<>(candidates.size());
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        double totalLength = 0;
+        for (EmbeddingMatch<TextSegment> candidate : candidates) {
+            // Os segmentos já foram pré-processados na ingestão; normalizar de novo é idempotente
+            List<String> terms = tokens(textPreprocessingService.preprocessForQuery(candidate.embedded().text()));
+            documents.add(terms);
+            totalLength += terms.size();
+            for (String term : new HashSet<>(terms)) {
+                if (queryTerms.contains(term)) {
+                    documentFrequency.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        double averageLength = Math.max(1, totalLength / candidates.size());
+
+        double[] bm25 = new double[candidates.size()];
+        double maxBm25 = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            bm25[i] = bm25(queryTerms, documents.get(i), documentFrequency, candidates.size(), averageLength);
+            maxBm25 = Math.max(maxBm25, bm25[i]);
+        }
+
+        List<EmbeddingMatch<TextSegment>> reranked = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            EmbeddingMatch<TextSegment> candidate = candidates.get(i);
+            double lexicalScore = maxBm25 > 0 ? bm25[i] / maxBm25 : 0;
+            double score = vectorWeight * candidate.score() + (1 - vectorWeight) * lexicalScore;
+            reranked.add(new EmbeddingMatch<>(score, candidate.embeddingId(), candidate.embedding(), candidate.embedded()));
+        }
+        reranked.sort(Comparator.comparingDouble((EmbeddingMatch<TextSegment> match) -> match.score()).reversed());
+        return reranked;
+    }
+
+    private static double bm25(Set<String> queryTerms, List<String> document,
+                               Map<String, Integer> documentFrequency, int documentCount, double averageLength) {
+        Map<String, Integer> termFrequency = new HashMap<>();
+        for (String term : document) {
+            if (queryTerms.contains(term)) {
+                termFrequency.merge(term, 1, Integer::sum);
+            }
+        }
+
+        double score = 0;
+        for (Map.Entry<String, Integer> entry : termFrequency.entrySet()) {
+            int df = documentFrequency.getOrDefault(entry.getKey(), 0);
+            double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            double tf = entry.getValue();
+            score += idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * document.size() / averageLength));
+        }
+        return score;
+    }
+
+    private static List<String> tokens(String text) {
+        return text.isBlank() ? List.of() : List.of(text.split(" "));
+    }
+}
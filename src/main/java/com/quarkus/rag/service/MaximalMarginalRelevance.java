@@ -0,0 +1,168 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.vector.Int8Vector;
+import com.quarkus.rag.vector.TopK;
+import com.quarkus.rag.vector.VectorMath;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seleção por Maximal Marginal Relevance (Carbonell &amp; Goldstein, 1998).
+ *
+ * A cada passo escolhe o candidato que maximiza
+ * {@code lambda * relevância - (1 - lambda) * max(similaridade com os já escolhidos)},
+ * usando os vetores já devolvidos pela busca, sem novas chamadas ao modelo de embeddings.
+ * Os vetores são normalizados uma vez e guardados em uma matriz contígua; a cada escolha, um único
+ * {@link VectorMath#topK} sobre a matriz dá a similaridade de todos os candidatos com o escolhido.
+ * Com {@code int8} os vetores são quantizados ({@link Int8Vector}) e a similaridade é aproximada.
+ */
+public final class MaximalMarginalRelevance {
+
+    private MaximalMarginalRelevance() {
+    }
+
+    public static List<EmbeddingMatch<TextSegment>> select(List<EmbeddingMatch<TextSegment>> candidates,
+                                                           int k, double lambda) {
+        return select(candidates, k, lambda, false);
+    }
+
+    /**
+     * @param candidates candidatos ordenados por relevância; {@code score()} é usado como relevância
+     * @param k          quantidade de segmentos a devolver
+     * @param lambda     1.0 = apenas relevância, 0.0 = apenas diversidade
+     * @param int8       calcula a similaridade entre candidatos em int8 (1/4 da memória, aritmética inteira)
+     */
+    public static List<EmbeddingMatch<TextSegment>> select(List<EmbeddingMatch<TextSegment>> candidates,
+                                                           int k, double lambda, boolean int8) {
+        int n = candidates.size();
+        if (n <= k) {
+            return candidates;
+        }
+
+        float[][] vectors = normalizedVectors(candidates);
+        Similarities similarities = int8 ? new Int8Similarities(vectors) : new MatrixSimilarities(vectors);
+
+        // Maior similaridade de cada candidato com o conjunto já selecionado
+        double[] maxSimilarity = new double[n];
+        boolean[] selected = new boolean[n];
+        List<EmbeddingMatch<TextSegment>> result = new ArrayList<>(k);
+
+        for (int step = 0; step < k; step++) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (selected[i]) {
+                    continue;
+                }
+                double score = lambda * candidates.get(i).score() - (1 - lambda) * maxSimilarity[i];
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+
+            selected[best] = true;
+            result.add(candidates.get(best));
+            similarities.accumulate(best, maxSimilarity);
+        }
+        return result;
+    }
+
+    /**
+     * Vetores normalizados; {@code null} para candidatos sem embedding ou com dimensão diferente do primeiro.
+     */
+    private static float[][] normalizedVectors(List<EmbeddingMatch<TextSegment>> candidates) {
+        float[][] vectors = new float[candidates.size()][];
+        int dimension = -1;
+        for (int i = 0; i < vectors.length; i++) {
+            Embedding embedding = candidates.get(i).embedding();
+            if (embedding == null) {
+                continue;
+            }
+            float[] vector = embedding.vector();
+            if (dimension < 0) {
+                dimension = vector.length;
+            }
+            if (vector.length == dimension) {
+                vectors[i] = VectorMath.normalize(vector);
+            }
+        }
+        return vectors;
+    }
+
+    private interface Similarities {
+
+        /**
+         * Atualiza {@code maxSimilarity} com a similaridade de cada candidato com {@code selected}.
+         */
+        void accumulate(int selected, double[] maxSimilarity);
+    }
+
+    private static final class MatrixSimilarities implements Similarities {
+
+        private final float[][] vectors;
+        private final float[] matrix;
+        private final int dimension;
+
+        MatrixSimilarities(float[][] vectors) {
+            this.vectors = vectors;
+            int found = 0;
+            for (float[] vector : vectors) {
+                if (vector != null) {
+                    found = vector.length;
+                    break;
+                }
+            }
+            dimension = found;
+            // Candidatos sem vetor ficam com linha zerada: similaridade 0 com todos
+            matrix = new float[vectors.length * dimension];
+            for (int i = 0; i < vectors.length; i++) {
+                if (vectors[i] != null) {
+                    System.arraycopy(vectors[i], 0, matrix, i * dimension, dimension);
+                }
+            }
+        }
+
+        @Override
+        public void accumulate(int selected, double[] maxSimilarity) {
+            if (vectors[selected] == null) {
+                return;
+            }
+            TopK similar = VectorMath.topK(matrix, dimension, vectors[selected], vectors.length);
+            for (int j = 0; j < similar.size(); j++) {
+                int i = similar.indexes()[j];
+                maxSimilarity[i] = Math.max(maxSimilarity[i], similar.scores()[j]);
+            }
+        }
+    }
+
+    private static final class Int8Similarities implements Similarities {
+
+        private final Int8Vector[] vectors;
+
+        Int8Similarities(float[][] normalized) {
+            vectors = new Int8Vector[normalized.length];
+            for (int i = 0; i < normalized.length; i++) {
+                if (normalized[i] != null) {
+                    vectors[i] = Int8Vector.quantize(normalized[i]);
+                }
+            }
+        }
+
+        @Override
+        public void accumulate(int selected, double[] maxSimilarity) {
+            if (vectors[selected] == null) {
+                return;
+            }
+            for (int i = 0; i < vectors.length; i++) {
+                if (vectors[i] != null) {
+                    maxSimilarity[i] = Math.max(maxSimilarity[i], vectors[i].dot(vectors[selected]));
+                }
+            }
+        }
+    }
+}
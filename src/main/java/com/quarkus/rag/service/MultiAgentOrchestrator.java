@@ -1,8 +1,12 @@
 package com.quarkus.rag.service;
 
 import com.quarkus.rag.ai.agents.*;
+import com.quarkus.rag.deadline.RequestDeadlines;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import com.quarkus.rag.metrics.PipelineMetrics;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.util.List;
@@ -19,6 +23,14 @@ import java.util.List;
  * 3. TechnicalExpert - Responde a pergunta técnica
  * 4. Validator - Valida a resposta
  * 5. Coordinator - Sintetiza tudo em uma resposta final
+ *
+ * Com {@code rag.agents.fused-validation.enabled} os passos 4 e 5 viram uma só chamada ao Validator com
+ * saída estruturada ({@link ValidationVerdict}), economizando uma ida ao LLM. Com
+ * {@code rag.agents.early-exit.enabled}, uma resposta técnica com groundedness ({@link GroundednessScorer})
+ * acima de {@code rag.agents.early-exit.threshold} dispensa os passos 4 e 5.
+ *
+ * Cada execução tem um prazo ({@link RequestDeadlines}); com pouco tempo restante o Validator é pulado.
+ * Retrieval e agentes passam por {@link StageCheckpoints} (reaproveitados só dentro de uma sessão de checkpoints).
  */
 @ApplicationScoped
 public class MultiAgentOrchestrator {
@@ -40,15 +52,56 @@ public class MultiAgentOrchestrator {
     @Inject
     CoordinatorAgent coordinatorAgent;
 
+    @Inject
+    ContextAssemblyService contextAssembly;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    AgentInvoker agentInvoker;
+
+    @Inject
+    RequestCoalescer coalescer;
+
+    @Inject
+    RequestDeadlines deadlines;
+
+    @Inject
+    StageCheckpoints checkpoints;
+
+    @Inject
+    GroundednessScorer groundednessScorer;
+
+    @ConfigProperty(name = "rag.agents.fused-validation.enabled", defaultValue = "false")
+    boolean fusedValidation;
+
+    @ConfigProperty(name = "rag.agents.early-exit.enabled", defaultValue = "false")
+    boolean earlyExitEnabled;
+
+    @ConfigProperty(name = "rag.agents.early-exit.threshold", defaultValue = "0.75")
+    double earlyExitThreshold;
+
     /**
      * Executa o pipeline completo de multi-agentes
      */
     public AgentResponse executeAgentPipeline(String question, int maxResults) {
+        return executeAgentPipeline(question, maxResults, null);
+    }
+
+    public AgentResponse executeAgentPipeline(String question, int maxResults, RetrievalFilter filter) {
+        return deadlines.within(() -> coalescer.coalesce(PipelineMetrics.PIPELINE_LANGCHAIN, question, maxResults,
+            filter, () -> metrics.inPipeline(PipelineMetrics.PIPELINE_LANGCHAIN,
+                () -> runAgentPipeline(question, maxResults, filter))));
+    }
+
+    private AgentResponse runAgentPipeline(String question, int maxResults, RetrievalFilter filter) {
         LOG.info("Starting multi-agent pipeline for question: " + question);
 
         // Step 1: Retrieve relevant documents
         LOG.info("[Agent Pipeline] Step 1: Retrieving documents...");
-        List<String> relevantDocs = retrievalService.retrieve(question, maxResults);
+        List<String> relevantDocs = checkpoints.memoize(StageCheckpoints.STAGE_RETRIEVAL, StageCheckpoints.RETRIEVAL_TEMPLATE,
+            () -> retrievalService.retrieve(question, maxResults, filter), question, maxResults, filter);
 
         if (relevantDocs.isEmpty()) {
             return new AgentResponse(
@@ -57,49 +110,123 @@ public class MultiAgentOrchestrator {
             );
         }
 
-        String context = String.join("\n\n", relevantDocs);
+        // Deduplicate overlapping chunks and apply per-agent token budgets
+        ContextAssemblyService.AssembledContext assembled = contextAssembly.assemble(question, relevantDocs);
+        String analysisContext = contextAssembly.contextFor(assembled, PipelineMetrics.AGENT_DOCUMENT_ANALYST);
+        String context = contextAssembly.contextFor(assembled, PipelineMetrics.AGENT_TECHNICAL_EXPERT);
+        String validationContext = contextAssembly.contextFor(assembled, PipelineMetrics.AGENT_VALIDATOR);
 
         // Step 2: Document Analyst analyzes the retrieved content
         LOG.info("[Agent Pipeline] Step 2: Document Analyst analyzing content...");
-        String analysis = documentAnalystAgent.analyzeDocument(context);
+        String analysis = checkpoints.memoize(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+            StageCheckpoints.template(DocumentAnalystAgent.class, "analyzeDocument"),
+            () -> agentInvoker.call(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                () -> documentAnalystAgent.analyzeDocument(analysisContext)),
+            analysisContext);
         LOG.debug("Analysis: " + analysis);
 
         // Step 3: Technical Expert answers the question
         LOG.info("[Agent Pipeline] Step 3: Technical Expert answering question...");
-        String technicalAnswer = technicalExpertAgent.answerTechnicalQuestion(context, question);
+        String technicalAnswer = checkpoints.memoize(PipelineMetrics.AGENT_TECHNICAL_EXPERT,
+            StageCheckpoints.template(TechnicalExpertAgent.class, "answerTechnicalQuestion"),
+            () -> agentInvoker.call(PipelineMetrics.AGENT_TECHNICAL_EXPERT,
+                () -> technicalExpertAgent.answerTechnicalQuestion(context, question)),
+            context, question);
         LOG.debug("Technical Answer: " + technicalAnswer);
 
-        // Step 4: Validator checks the answer
-        LOG.info("[Agent Pipeline] Step 4: Validator checking answer...");
-        String validation = validatorAgent.validateAnswer(context, technicalAnswer);
+        // Early exit: a well-grounded technical answer skips validation and coordination
+        double groundedness = groundednessScorer.score(technicalAnswer, context);
+        boolean earlyExit = earlyExitEnabled && groundedness >= earlyExitThreshold;
+        metrics.recordGroundedness(groundedness, earlyExit);
+        if (earlyExit) {
+            LOG.info("[Agent Pipeline] Groundedness " + groundedness + ", skipping Validator and Coordinator");
+            return new AgentResponse(technicalAnswer, analysis, technicalAnswer,
+                GroundednessScorer.earlyExitMessage(groundedness), context);
+        }
+
+        // Step 4: Validator checks the answer (skipped when the request deadline is close)
+        boolean validate = deadlines.allowsOptionalStage(PipelineMetrics.AGENT_VALIDATOR);
+        if (validate && fusedValidation) {
+            // Steps 4+5 in a single structured call
+            LOG.info("[Agent Pipeline] Step 4: Validator validating and finalizing answer...");
+            ValidationVerdict verdict = validateAndFinalize(validationContext, analysis, technicalAnswer, question);
+            LOG.info("Multi-agent pipeline completed successfully");
+            return new AgentResponse(verdict.finalAnswer(), analysis, technicalAnswer, verdict.summary(), context);
+        }
+
+        String validation;
+        if (validate) {
+            LOG.info("[Agent Pipeline] Step 4: Validator checking answer...");
+            validation = checkpoints.memoize(PipelineMetrics.AGENT_VALIDATOR,
+                StageCheckpoints.template(ValidatorAgent.class, "validateAnswer"),
+                () -> agentInvoker.call(PipelineMetrics.AGENT_VALIDATOR,
+                    () -> validatorAgent.validateAnswer(validationContext, technicalAnswer)),
+                validationContext, technicalAnswer);
+        } else {
+            validation = RequestDeadlines.VALIDATION_SKIPPED;
+        }
         LOG.debug("Validation: " + validation);
 
         // Step 5: Coordinator synthesizes everything
         LOG.info("[Agent Pipeline] Step 5: Coordinator synthesizing final answer...");
-        String finalAnswer = coordinatorAgent.synthesizeFinalAnswer(
-            analysis,
-            technicalAnswer,
-            validation,
-            question
-        );
+        String finalAnswer = checkpoints.memoize(PipelineMetrics.AGENT_COORDINATOR,
+            StageCheckpoints.template(CoordinatorAgent.class, "synthesizeFinalAnswer"),
+            () -> agentInvoker.call(PipelineMetrics.AGENT_COORDINATOR,
+                () -> coordinatorAgent.synthesizeFinalAnswer(
+                    analysis,
+                    technicalAnswer,
+                    validation,
+                    question
+                )),
+            analysis, technicalAnswer, validation, question);
 
         LOG.info("Multi-agent pipeline completed successfully");
 
         return new AgentResponse(finalAnswer, analysis, technicalAnswer, validation, context);
     }
 
+    /**
+     * Validação e síntese numa chamada só; sem resposta final no JSON, fica a resposta técnica.
+     */
+    private ValidationVerdict validateAndFinalize(String context, String analysis, String technicalAnswer,
+                                                  String question) {
+        ValidationVerdict verdict = checkpoints.memoize(PipelineMetrics.AGENT_VALIDATOR,
+            StageCheckpoints.template(ValidatorAgent.class, "validateAndFinalize"),
+            () -> agentInvoker.call(PipelineMetrics.AGENT_VALIDATOR,
+                () -> validatorAgent.validateAndFinalize(context, analysis, technicalAnswer, question)),
+            context, analysis, technicalAnswer, question);
+        metrics.recordValidation(verdict.valid(), verdict.score());
+        LOG.debug("Validation: " + verdict.summary());
+        if (verdict.finalAnswer() == null || verdict.finalAnswer().isBlank()) {
+            return new ValidationVerdict(verdict.valid(), verdict.issues(), verdict.score(), technicalAnswer);
+        }
+        return verdict;
+    }
+
     /**
      * Execução simplificada - apenas análise e resposta
      */
     public String executeSimplified(String question, int maxResults) {
-        List<String> relevantDocs = retrievalService.retrieve(question, maxResults);
+        return executeSimplified(question, maxResults, null);
+    }
+
+    public String executeSimplified(String question, int maxResults, RetrievalFilter filter) {
+        return deadlines.within(() -> coalescer.coalesce(PipelineMetrics.PIPELINE_LANGCHAIN + "-simplified",
+            question, maxResults, filter, () -> metrics.inPipeline(PipelineMetrics.PIPELINE_LANGCHAIN,
+                () -> runSimplified(question, maxResults, filter))));
+    }
+
+    private String runSimplified(String question, int maxResults, RetrievalFilter filter) {
+        List<String> relevantDocs = retrievalService.retrieve(question, maxResults, filter);
 
         if (relevantDocs.isEmpty()) {
             return "Não encontrei documentos relevantes.";
         }
 
-        String context = String.join("\n\n", relevantDocs);
-        return technicalExpertAgent.answerTechnicalQuestion(context, question);
+        String context = contextAssembly.contextFor(
+            contextAssembly.assemble(question, relevantDocs), PipelineMetrics.AGENT_TECHNICAL_EXPERT);
+        return agentInvoker.call(PipelineMetrics.AGENT_TECHNICAL_EXPERT,
+            () -> technicalExpertAgent.answerTechnicalQuestion(context, question));
     }
 
     /**
@@ -108,13 +235,17 @@ public class MultiAgentOrchestrator {
     public DocumentAnalysisResult analyzeWithAgents(String documentContent) {
         LOG.info("Starting multi-agent document analysis");
 
-        // Analyst extracts key information
-        String keyInfo = documentAnalystAgent.extractKeyInformation(documentContent);
+        return deadlines.within(() -> metrics.inPipeline(PipelineMetrics.PIPELINE_LANGCHAIN, () -> {
+            // Analyst extracts key information
+            String keyInfo = agentInvoker.call(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                () -> documentAnalystAgent.extractKeyInformation(documentContent));
 
-        // Analyst creates summary
-        String summary = documentAnalystAgent.analyzeDocument(documentContent);
+            // Analyst creates summary
+            String summary = agentInvoker.call(PipelineMetrics.AGENT_DOCUMENT_ANALYST,
+                () -> documentAnalystAgent.analyzeDocument(documentContent));
 
-        return new DocumentAnalysisResult(summary, keyInfo);
+            return new DocumentAnalysisResult(summary, keyInfo);
+        }));
     }
 
     /**
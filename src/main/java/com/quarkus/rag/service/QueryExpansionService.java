@@ -0,0 +1,79 @@
+package com.quarkus.rag.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Gera variantes da pergunta para a busca multi-query, sem chamadas ao LLM:
+ *
+ * - a pergunta original
+ * - a forma pré-processada (stemming/stopwords, mesma normalização dos segmentos)
+ * - as palavras-chave sem stemming (opcional)
+ * - sub-perguntas, quando a pergunta junta mais de um assunto (opcional)
+ */
+@ApplicationScoped
+public class QueryExpansionService {
+
+    // Separadores de sub-perguntas: fim de pergunta, ponto e vírgula e "e"/"mas" antes de um interrogativo
+    private static final Pattern SUB_QUESTION_SPLIT = Pattern.compile(
+        "\\?|;|,?\\s+(?:e|mas|também)\\s+(?=(?:qual|quais|como|quando|onde|por que|o que|quem|quanto)\\b)",
+        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private static final int MIN_SUB_QUESTION_WORDS = 3;
+
+    @Inject
+    TextPreprocessingService textPreprocessingService;
+
+    @ConfigProperty(name = "rag.retrieval.multi-query.keywords", defaultValue = "true")
+    boolean keywordsEnabled;
+
+    @ConfigProperty(name = "rag.retrieval.multi-query.sub-questions", defaultValue = "true")
+    boolean subQuestionsEnabled;
+
+    @ConfigProperty(name = "rag.retrieval.multi-query.max-variants", defaultValue = "4")
+    int maxVariants;
+
+    /**
+     * Variantes distintas e não vazias, sempre começando pela pergunta original.
+     */
+    public List<String> variants(String question) {
+        Set<String> variants = new LinkedHashSet<>();
+        variants.add(question.trim());
+        addIfPresent(variants, textPreprocessingService.preprocessForQuery(question));
+        if (keywordsEnabled) {
+            addIfPresent(variants, textPreprocessingService.extractKeywords(question));
+        }
+        if (subQuestionsEnabled) {
+            subQuestions(question).forEach(subQuestion -> addIfPresent(variants, subQuestion));
+        }
+        return new ArrayList<>(variants).subList(0, Math.min(variants.size(), Math.max(1, maxVariants)));
+    }
+
+    List<String> subQuestions(String question) {
+        String[] parts = SUB_QUESTION_SPLIT.split(question);
+        if (parts.length < 2) {
+            return List.of();
+        }
+        List<String> subQuestions = new ArrayList<>();
+        for (String part : parts) {
+            String trimmed = part.trim();
+            if (trimmed.split("\\s+").length >= MIN_SUB_QUESTION_WORDS) {
+                subQuestions.add(trimmed);
+            }
+        }
+        return subQuestions.size() >= 2 ? subQuestions : List.of();
+    }
+
+    private static void addIfPresent(Set<String> variants, String variant) {
+        if (variant != null && !variant.isBlank()) {
+            variants.add(variant.trim());
+        }
+    }
+}
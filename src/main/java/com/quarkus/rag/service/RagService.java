@@ -1,6 +1,13 @@
 package com.quarkus.rag.service;
 
 import com.quarkus.rag.ai.ChatService;
+import com.quarkus.rag.deadline.RequestDeadlines;
+import com.quarkus.rag.dto.chat.ChatResponse;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import com.quarkus.rag.faq.FaqCache;
+import com.quarkus.rag.memory.Conversation;
+import com.quarkus.rag.memory.ConversationMemory;
+import com.quarkus.rag.metrics.PipelineMetrics;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -18,22 +25,141 @@ public class RagService {
     @Inject
     TextPreprocessingService textPreprocessingService;
 
+    @Inject
+    ContextAssemblyService contextAssembly;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    AgentInvoker agentInvoker;
+
+    @Inject
+    RequestCoalescer coalescer;
+
+    @Inject
+    RequestDeadlines deadlines;
+
+    @Inject
+    ConversationMemory memory;
+
+    @Inject
+    FaqCache faqCache;
+
+    private static final String NO_RESULTS =
+        "Desculpe, não encontrei informações relevantes para responder sua pergunta.";
+
     public String ask(String question, int maxResults) {
-        // 1. Pré-processar a pergunta do usuário
-        String processedQuestion = textPreprocessingService.preprocessForQuery(question);
+        return ask(question, maxResults, null);
+    }
 
-        // 2. Retrieve relevant documents usando a pergunta processada
-        List<String> relevantDocs = retrievalService.retrieve(processedQuestion, maxResults);
+    public String ask(String question, int maxResults, RetrievalFilter filter) {
+        FaqCache.Entry cached = faqCache.lookup(question, maxResults, filter);
+        return cached != null ? cached.answer() : askLive(question, maxResults, filter);
+    }
+
+    /**
+     * Pergunta dentro de uma conversa: usa o histórico da sessão no prompt, reescreve perguntas de
+     * seguimento para a busca e reaproveita os segmentos do turno anterior quando eles já cobrem a pergunta.
+     * Sem {@code sessionId} uma sessão nova é criada; o id volta na resposta. A primeira pergunta de
+     * uma conversa pode ser respondida pelo cache de FAQ ({@code cache} na resposta).
+     */
+    public ChatResponse chat(String sessionId, String question, int maxResults, RetrievalFilter filter) {
+        if (!memory.isEnabled()) {
+            FaqCache.Entry cached = faqCache.lookup(question, maxResults, filter);
+            return cached != null
+                ? new ChatResponse(cached.answer(), null, cached.freshness())
+                : new ChatResponse(askLive(question, maxResults, filter), null);
+        }
+        Conversation conversation = memory.open(sessionId);
+        // Sem coalescing: a resposta depende do histórico da sessão
+        return deadlines.within(() -> metrics.inPipeline(PipelineMetrics.PIPELINE_CHAT,
+            () -> doChat(conversation, question, maxResults, filter)));
+    }
 
+    /**
+     * Busca e resposta sem cache, coalescing nem memória (usado na pré-computação do cache de FAQ).
+     */
+    public Answer answer(String question, int maxResults) {
+        List<String> relevantDocs = retrieve(question, maxResults, null);
         if (relevantDocs.isEmpty()) {
-            return "Desculpe, não encontrei informações relevantes para responder sua pergunta.";
+            return new Answer(NO_RESULTS, List.of());
+        }
+        String context = contextFor(question, relevantDocs);
+        return new Answer(agentInvoker.call(PipelineMetrics.AGENT_CHAT, () -> chatService.chat(context, question)),
+            relevantDocs);
+    }
+
+    private String askLive(String question, int maxResults, RetrievalFilter filter) {
+        return deadlines.within(() -> coalescer.coalesce(PipelineMetrics.PIPELINE_CHAT, question, maxResults, filter,
+            () -> metrics.inPipeline(PipelineMetrics.PIPELINE_CHAT, () -> doAsk(question, maxResults, filter))));
+    }
+
+    private String doAsk(String question, int maxResults, RetrievalFilter filter) {
+        List<String> relevantDocs = retrieve(question, maxResults, filter);
+        if (relevantDocs.isEmpty()) {
+            return NO_RESULTS;
         }
 
         // 3. Build context from retrieved documents
-        String context = String.join("\n\n", relevantDocs);
+        String context = contextFor(question, relevantDocs);
 
         // 4. Generate answer using LLM with context (usa pergunta original para melhor resposta)
-        return chatService.chat(context, question);
+        return agentInvoker.call(PipelineMetrics.AGENT_CHAT, () -> chatService.chat(context, question));
     }
-}
 
+    private ChatResponse doChat(Conversation conversation, String question, int maxResults, RetrievalFilter filter) {
+        String history = memory.history(conversation);
+        if (history.isEmpty()) {
+            FaqCache.Entry cached = faqCache.lookup(question, maxResults, filter);
+            if (cached != null) {
+                memory.record(conversation, question, cached.answer(), question, maxResults, filter, cached.documents());
+                return new ChatResponse(cached.answer(), conversation.id(), cached.freshness());
+            }
+        }
+
+        Conversation.Retrieval reusable = memory.reusableRetrieval(conversation, question, maxResults, filter);
+        String retrievalQuery;
+        List<String> relevantDocs;
+        if (reusable != null) {
+            retrievalQuery = reusable.query();
+            relevantDocs = reusable.documents();
+            metrics.recordChatMemoryReuse(true);
+        } else {
+            retrievalQuery = memory.rewriteQuery(conversation, question);
+            relevantDocs = retrieve(retrievalQuery, maxResults, filter);
+            metrics.recordChatMemoryReuse(false);
+        }
+
+        String answer;
+        if (relevantDocs.isEmpty()) {
+            answer = NO_RESULTS;
+        } else {
+            String context = contextFor(question, relevantDocs);
+            answer = agentInvoker.call(PipelineMetrics.AGENT_CHAT, () -> history.isEmpty()
+                ? chatService.chat(context, question)
+                : chatService.chatWithHistory(history, context, question));
+        }
+        memory.record(conversation, question, answer, retrievalQuery, maxResults, filter, relevantDocs);
+        return new ChatResponse(answer, conversation.id());
+    }
+
+    private List<String> retrieve(String question, int maxResults, RetrievalFilter filter) {
+        // 1. Pré-processar a pergunta do usuário
+        String processedQuestion = textPreprocessingService.preprocessForQuery(question);
+
+        // 2. Retrieve relevant documents usando a pergunta processada
+        // (no modo multi-query a forma pré-processada é gerada como uma das variantes)
+        String retrievalQuery = retrievalService.isMultiQuery() ? question : processedQuestion;
+        return retrievalService.retrieve(retrievalQuery, maxResults, filter);
+    }
+
+    private String contextFor(String question, List<String> relevantDocs) {
+        return contextAssembly.contextFor(contextAssembly.assemble(question, relevantDocs), PipelineMetrics.AGENT_CHAT);
+    }
+
+    /**
+     * Resposta com os segmentos usados no contexto.
+     */
+    public record Answer(String text, List<String> documents) {}
+}
@@ -0,0 +1,49 @@
+package com.quarkus.rag.service;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fusão de rankings por Reciprocal Rank Fusion (Cormack et al., 2009).
+ *
+ * Cada segmento recebe {@code soma(1 / (k + posição))} sobre as listas em que aparece, então
+ * segmentos encontrados por várias variantes da pergunta sobem no ranking final. O match mantido
+ * é o de maior score vetorial, usado depois pelo re-ranking e pelo MMR.
+ */
+public final class ReciprocalRankFusion {
+
+    public static final int DEFAULT_K = 60;
+
+    private ReciprocalRankFusion() {
+    }
+
+    public static List<EmbeddingMatch<TextSegment>> fuse(List<List<EmbeddingMatch<TextSegment>>> rankings,
+                                                         int k, int maxResults) {
+        if (rankings.size() == 1) {
+            List<EmbeddingMatch<TextSegment>> single = rankings.get(0);
+            return single.size() > maxResults ? single.subList(0, maxResults) : single;
+        }
+
+        Map<String, Double> fusedScores = new LinkedHashMap<>();
+        Map<String, EmbeddingMatch<TextSegment>> bestMatches = new LinkedHashMap<>();
+        for (List<EmbeddingMatch<TextSegment>> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                EmbeddingMatch<TextSegment> match = ranking.get(rank);
+                fusedScores.merge(match.embeddingId(), 1.0 / (k + rank + 1), Double::sum);
+                bestMatches.merge(match.embeddingId(), match,
+                    (current, candidate) -> candidate.score() > current.score() ? candidate : current);
+            }
+        }
+
+        return fusedScores.entrySet().stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+            .limit(maxResults)
+            .map(entry -> bestMatches.get(entry.getKey()))
+            .toList();
+    }
+}
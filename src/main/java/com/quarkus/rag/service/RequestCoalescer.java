@@ -0,0 +1,120 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.admission.LlmAdmissionController;
+import com.quarkus.rag.admission.Priority;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.tracing.PipelineTracing;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Single-flight para perguntas idênticas em execução simultânea.
+ *
+ * A primeira requisição de uma chave executa o pipeline; as que chegam enquanto ela está em
+ * andamento aguardam e recebem o mesmo resultado (ou a mesma exceção). A chave é removida ao
+ * término, então nada é cacheado: chamadas posteriores executam de novo.
+ *
+ * Chave: operação (pipeline), pergunta normalizada, {@code maxResults}, filtros de busca, prioridade de
+ * admissão e sessão de checkpoints da thread. Sem as duas últimas, um job BATCH poderia liderar (e
+ * atrasar) uma requisição interativa, e uma sessão receberia um resultado cujas etapas ficaram
+ * memorizadas em outra.
+ */
+@ApplicationScoped
+public class RequestCoalescer {
+
+    private static final Logger LOG = Logger.getLogger(RequestCoalescer.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.]+$");
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @Inject
+    LlmAdmissionController admission;
+
+    @Inject
+    StageCheckpoints checkpoints;
+
+    @ConfigProperty(name = "rag.coalescing.enabled", defaultValue = "true")
+    boolean enabled;
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public <T> T coalesce(String operation, String question, int maxResults, RetrievalFilter filter,
+                          Supplier<T> computation) {
+        if (!enabled || question == null) {
+            return computation.get();
+        }
+
+        Key key = new Key(operation, normalize(question), maxResults, filter,
+            admission.currentPriority(), checkpoints.currentSession());
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+
+        if (existing != null) {
+            LOG.debugf("[Coalescing] Joining in-flight %s request", operation);
+            metrics.recordCoalescing(operation, true);
+            tracing.attribute("rag.coalesced", "true");
+            return await(existing);
+        }
+
+        metrics.recordCoalescing(operation, false);
+        try {
+            T result = computation.get();
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    /**
+     * Requisições em andamento (para diagnóstico).
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    static String normalize(String question) {
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(normalized.trim()).replaceAll("");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(CompletableFuture<Object> future) {
+        try {
+            return (T) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String operation, String question, int maxResults, RetrievalFilter filter,
+                       Priority priority, String session) {}
+}
@@ -0,0 +1,20 @@
+package com.quarkus.rag.service;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.List;
+
+/**
+ * Re-ranker local aplicado aos candidatos da busca vetorial.
+ *
+ * Implementações são beans CDI selecionados por {@link #name()} através de
+ * {@code rag.retrieval.reranker}. O resultado deve vir ordenado por relevância,
+ * com o novo score em {@link EmbeddingMatch#score()}.
+ */
+public interface Reranker {
+
+    String name();
+
+    List<EmbeddingMatch<TextSegment>> rerank(String query, List<EmbeddingMatch<TextSegment>> candidates);
+}
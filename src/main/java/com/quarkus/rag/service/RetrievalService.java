@@ -1,39 +1,261 @@
 package com.quarkus.rag.service;
 
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import com.quarkus.rag.metrics.PipelineMetrics;
+import com.quarkus.rag.tracing.PipelineTracing;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class RetrievalService {
 
+    private static final Logger LOG = Logger.getLogger(RetrievalService.class);
+
+    // Relevance threshold
+    private static final double MIN_SCORE = 0.7;
+
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
 
     @Inject
     EmbeddingModel embeddingModel;
 
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracing tracing;
+
+    @Inject
+    VectorIndexService vectorIndexService;
+
+    @Inject
+    QueryExpansionService queryExpansion;
+
+    @Inject
+    @Any
+    Instance<Reranker> rerankers;
+
+    @ConfigProperty(name = "rag.retrieval.mmr.enabled", defaultValue = "false")
+    boolean mmrEnabled;
+
+    @ConfigProperty(name = "rag.retrieval.mmr.lambda", defaultValue = "0.7")
+    double mmrLambda;
+
+    // Similaridade entre candidatos do MMR em int8: aproximada, com 1/4 da memória por vetor
+    @ConfigProperty(name = "rag.retrieval.mmr.int8", defaultValue = "false")
+    boolean mmrInt8;
+
+    @ConfigProperty(name = "rag.retrieval.candidate-multiplier", defaultValue = "4")
+    int candidateMultiplier;
+
+    @ConfigProperty(name = "rag.retrieval.reranker", defaultValue = "none")
+    String rerankerName;
+
+    @ConfigProperty(name = "rag.retrieval.multi-query.enabled", defaultValue = "false")
+    boolean multiQueryEnabled;
+
+    // Buscas vetoriais simultâneas por requisição (uma por variante da pergunta)
+    @ConfigProperty(name = "rag.retrieval.multi-query.parallelism", defaultValue = "4")
+    int multiQueryParallelism;
+
+    @ConfigProperty(name = "rag.retrieval.multi-query.rrf-k", defaultValue = "60")
+    int rrfK;
+
+    Reranker reranker;
+
+    private ExecutorService searchExecutor;
+
+    @PostConstruct
+    void init() {
+        if (multiQueryEnabled) {
+            AtomicInteger threads = new AtomicInteger();
+            searchExecutor = tracing.contextPropagating(Executors.newFixedThreadPool(multiQueryParallelism, task -> {
+                Thread thread = new Thread(task, "rag-retrieval-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        if (!"none".equalsIgnoreCase(rerankerName)) {
+            reranker = rerankers.stream()
+                .filter(candidate -> candidate.name().equalsIgnoreCase(rerankerName))
+                .findFirst()
+                .orElse(null);
+            if (reranker == null) {
+                LOG.warnf("Unknown reranker '%s', post-retrieval re-ranking disabled", rerankerName);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Com multi-query a pergunta deve chegar sem pré-processamento: a forma pré-processada
+     * já é uma das variantes.
+     */
+    public boolean isMultiQuery() {
+        return multiQueryEnabled;
+    }
+
     public List<String> retrieve(String query, int maxResults) {
-        // Embed the query
-        var queryEmbedding = embeddingModel.embed(query).content();
+        return retrieve(query, maxResults, (RetrievalFilter) null);
+    }
+
+    /**
+     * Busca restrita aos documentos, tipos de conteúdo e período de upload informados.
+     */
+    public List<String> retrieve(String query, int maxResults, RetrievalFilter filter) {
+        return retrieve(query, maxResults, filter, vectorIndexService.defaultTuning());
+    }
+
+    /**
+     * Busca com parâmetros do índice ANN ({@code ef_search}/{@code probes}) específicos para esta consulta.
+     */
+    public List<String> retrieve(String query, int maxResults, VectorSearchTuning tuning) {
+        return retrieve(query, maxResults, null, tuning);
+    }
+
+    public List<String> retrieve(String query, int maxResults, RetrievalFilter filter, VectorSearchTuning tuning) {
+        return tracing.span("retrieval", () -> {
+            tracing.attribute("rag.max_results", maxResults);
+            return doRetrieve(query, maxResults, filter, tuning);
+        });
+    }
+
+    private List<String> doRetrieve(String query, int maxResults, RetrievalFilter filter, VectorSearchTuning tuning) {
+        // Over-fetch candidates when a post-retrieval stage (re-ranking/MMR) is enabled
+        int candidates = isRefining() ? maxResults * candidateMultiplier : maxResults;
 
         // Search for similar segments
-        List<EmbeddingMatch<TextSegment>> matches = embeddingStore.findRelevant(
-            queryEmbedding,
-            maxResults,
-            0.7  // minScore - relevance threshold
-        );
+        List<EmbeddingMatch<TextSegment>> matches = multiQueryEnabled
+            ? multiQuerySearch(query, candidates, filter, tuning)
+            : singleQuerySearch(query, candidates, filter, tuning);
+
+        if (!isRefining()) {
+            return extractTexts(matches);
+        }
+        return extractTexts(tracing.span("retrieval.refine", () -> refine(query, matches, maxResults)));
+    }
+
+    private List<EmbeddingMatch<TextSegment>> singleQuerySearch(String query, int candidates,
+                                                                RetrievalFilter filter, VectorSearchTuning tuning) {
+        var queryEmbedding = metrics.timeEmbedding(() -> embeddingModel.embed(query).content());
+        return metrics.timeVectorSearch(() -> search(queryEmbedding, candidates, filter, tuning));
+    }
 
-        // Extract text from matches
+    /**
+     * Variantes da pergunta embedadas em uma única chamada, buscadas em paralelo e fundidas por RRF:
+     * a latência fica próxima à de uma busca, não à soma delas.
+     */
+    private List<EmbeddingMatch<TextSegment>> multiQuerySearch(String query, int candidates,
+                                                               RetrievalFilter filter, VectorSearchTuning tuning) {
+        List<String> variants = queryExpansion.variants(query);
+        tracing.attribute("rag.query_variants", variants.size());
+
+        List<TextSegment> segments = variants.stream().map(TextSegment::from).toList();
+        List<Embedding> embeddings = metrics.timeEmbedding(() -> embeddingModel.embedAll(segments).content());
+
+        List<CompletableFuture<List<EmbeddingMatch<TextSegment>>>> searches = new ArrayList<>(embeddings.size());
+        for (Embedding embedding : embeddings) {
+            searches.add(CompletableFuture.supplyAsync(metrics.propagating(
+                () -> metrics.timeVectorSearch(() -> search(embedding, candidates, filter, tuning))), searchExecutor));
+        }
+
+        List<List<EmbeddingMatch<TextSegment>>> rankings = new ArrayList<>(searches.size());
+        try {
+            for (CompletableFuture<List<EmbeddingMatch<TextSegment>>> search : searches) {
+                rankings.add(search.join());
+            }
+        } catch (CompletionException e) {
+            searches.forEach(search -> search.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return ReciprocalRankFusion.fuse(rankings, rrfK, candidates);
+    }
+
+    private List<EmbeddingMatch<TextSegment>> search(Embedding queryEmbedding, int candidates,
+                                                     RetrievalFilter filter, VectorSearchTuning tuning) {
+        if (vectorIndexService.isQuantized()) {
+            tracing.attribute("rag.vector_search", "quantized+rescore");
+            return vectorIndexService.searchQuantized(queryEmbedding, candidates, MIN_SCORE, filter, tuning);
+        }
+
+        // Filtro vira cláusula WHERE na mesma query do índice, em vez de pós-filtrar os top-k
+        Filter storeFilter = SegmentMetadata.toFilter(filter);
+        if (storeFilter != null) {
+            tracing.attribute("rag.filter", storeFilter.toString());
+        }
+        // ef_search cobre os candidatos do over-fetch (também em cada variante da busca multi-query) e,
+        // com filtro, o scan do índice não para nos vizinhos globais
+        VectorSearchTuning effective = vectorIndexService.filteredTuning(tuning, candidates, filter);
+        List<EmbeddingMatch<TextSegment>> matches = vectorIndexService.withTuning(effective,
+            () -> embeddingStore.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(queryEmbedding)
+                .maxResults(candidates)
+                .minScore(MIN_SCORE)
+                .filter(storeFilter)
+                .build()).matches());
+        if (effective.iterativeScan() == null) {
+            return matches;
+        }
+        // relaxed_order (IVFFlat) pode devolver fora de ordem
+        List<EmbeddingMatch<TextSegment>> ordered = new ArrayList<>(matches);
+        ordered.sort(Comparator.comparingDouble((EmbeddingMatch<TextSegment> match) -> match.score()).reversed());
+        return ordered;
+    }
+
+    boolean isRefining() {
+        return mmrEnabled || reranker != null;
+    }
+
+    /**
+     * Re-ranking opcional seguido de MMR sobre os candidatos, devolvendo no máximo {@code maxResults}.
+     */
+    List<EmbeddingMatch<TextSegment>> refine(String query, List<EmbeddingMatch<TextSegment>> candidates, int maxResults) {
+        List<EmbeddingMatch<TextSegment>> ranked = reranker != null ? reranker.rerank(query, candidates) : candidates;
+        if (mmrEnabled) {
+            return MaximalMarginalRelevance.select(ranked, maxResults, mmrLambda, mmrInt8);
+        }
+        return ranked.size() > maxResults ? ranked.subList(0, maxResults) : ranked;
+    }
+
+    /**
+     * Extrai o texto dos segmentos encontrados, mantendo a ordem de relevância.
+     */
+    List<String> extractTexts(List<EmbeddingMatch<TextSegment>> matches) {
         return matches.stream()
             .map(match -> match.embedded().text())
             .collect(Collectors.toList());
     }
 }
-
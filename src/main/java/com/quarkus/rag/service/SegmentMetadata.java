@@ -0,0 +1,128 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.MetadataFilterBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chaves de metadata gravadas em cada segmento na ingestão e conversão de
+ * {@link RetrievalFilter} para o filtro do embedding store.
+ */
+public final class SegmentMetadata {
+
+    public static final String DOCUMENT_ID = "document_id";
+    public static final String FILE_NAME = "file_name";
+    public static final String CONTENT_TYPE = "content_type";
+    // Epoch millis (UTC), para permitir comparação por intervalo no SQL
+    public static final String UPLOADED_AT = "uploaded_at";
+
+    private SegmentMetadata() {
+    }
+
+    public static void apply(Metadata metadata, Long documentId, String fileName, String contentType,
+                             LocalDateTime uploadedAt) {
+        if (documentId != null) {
+            metadata.put(DOCUMENT_ID, documentId.longValue());
+        }
+        if (fileName != null) {
+            metadata.put(FILE_NAME, fileName);
+        }
+        if (contentType != null) {
+            metadata.put(CONTENT_TYPE, contentType.toLowerCase());
+        }
+        if (uploadedAt != null) {
+            metadata.put(UPLOADED_AT, toEpochMillis(uploadedAt));
+        }
+    }
+
+    /**
+     * Converte os filtros da requisição; retorna null quando não há restrição.
+     */
+    public static Filter toFilter(RetrievalFilter retrievalFilter) {
+        if (retrievalFilter == null || retrievalFilter.isEmpty()) {
+            return null;
+        }
+
+        Filter filter = null;
+        if (retrievalFilter.documentIds() != null && !retrievalFilter.documentIds().isEmpty()) {
+            filter = and(filter, MetadataFilterBuilder.metadataKey(DOCUMENT_ID).isIn(retrievalFilter.documentIds()));
+        }
+        if (retrievalFilter.contentTypes() != null && !retrievalFilter.contentTypes().isEmpty()) {
+            filter = and(filter, MetadataFilterBuilder.metadataKey(CONTENT_TYPE).isIn(
+                retrievalFilter.contentTypes().stream().map(String::toLowerCase).toList()));
+        }
+        if (retrievalFilter.uploadedAfter() != null) {
+            filter = and(filter, MetadataFilterBuilder.metadataKey(UPLOADED_AT)
+                .isGreaterThanOrEqualTo(toEpochMillis(retrievalFilter.uploadedAfter())));
+        }
+        if (retrievalFilter.uploadedBefore() != null) {
+            filter = and(filter, MetadataFilterBuilder.metadataKey(UPLOADED_AT)
+                .isLessThanOrEqualTo(toEpochMillis(retrievalFilter.uploadedBefore())));
+        }
+        return filter;
+    }
+
+    /**
+     * Mesmo filtro como condição SQL sobre a coluna JSONB {@code metadata}, para consultas
+     * escritas à mão (ex.: busca quantizada). Os valores são adicionados em {@code parameters}.
+     * Retorna {@code "TRUE"} quando não há restrição.
+     */
+    public static String toSqlCondition(RetrievalFilter retrievalFilter, List<Object> parameters) {
+        if (retrievalFilter == null || retrievalFilter.isEmpty()) {
+            return "TRUE";
+        }
+
+        StringBuilder condition = new StringBuilder("TRUE");
+        if (retrievalFilter.documentIds() != null && !retrievalFilter.documentIds().isEmpty()) {
+            condition.append(" AND (metadata->>'" + DOCUMENT_ID + "')::bigint = ANY(?)");
+            parameters.add(retrievalFilter.documentIds().toArray(new Long[0]));
+        }
+        if (retrievalFilter.contentTypes() != null && !retrievalFilter.contentTypes().isEmpty()) {
+            condition.append(" AND metadata->>'" + CONTENT_TYPE + "' = ANY(?)");
+            parameters.add(retrievalFilter.contentTypes().stream().map(String::toLowerCase).toArray(String[]::new));
+        }
+        if (retrievalFilter.uploadedAfter() != null) {
+            condition.append(" AND (metadata->>'" + UPLOADED_AT + "')::bigint >= ?");
+            parameters.add(toEpochMillis(retrievalFilter.uploadedAfter()));
+        }
+        if (retrievalFilter.uploadedBefore() != null) {
+            condition.append(" AND (metadata->>'" + UPLOADED_AT + "')::bigint <= ?");
+            parameters.add(toEpochMillis(retrievalFilter.uploadedBefore()));
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Reconstrói o {@link Metadata} a partir do JSON da coluna {@code metadata}; valores de tipos
+     * não suportados pelo Metadata são mantidos como texto.
+     */
+    public static Metadata fromJson(Map<String, Object> json) {
+        Map<String, Object> values = new HashMap<>();
+        if (json != null) {
+            json.forEach((key, value) -> {
+                if (value instanceof String || value instanceof Integer || value instanceof Long
+                        || value instanceof Double) {
+                    values.put(key, value);
+                } else if (value != null) {
+                    values.put(key, value.toString());
+                }
+            });
+        }
+        return Metadata.from(values);
+    }
+
+    private static Filter and(Filter current, Filter next) {
+        return current == null ? next : current.and(next);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
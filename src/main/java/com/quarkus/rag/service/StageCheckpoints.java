@@ -0,0 +1,177 @@
+package com.quarkus.rag.service;
+
+import com.quarkus.rag.metrics.PipelineMetrics;
+import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Checkpoints das etapas dos pipelines (retrieval e chamadas de agente) dentro de uma sessão.
+ *
+ * Fora de uma sessão ({@link #withSession(Supplier)}) nada é memorizado. Dentro dela, cada etapa é
+ * identificada por nome, template de prompt (hash das anotações do AI service) e hash das entradas;
+ * a segunda execução com a mesma chave reaproveita o resultado, de modo que os dois pipelines do
+ * {@code /api/mcp/compare} podem compartilhar as respostas do LLM e medir só a orquestração.
+ *
+ * O armazenamento é um LRU limitado a {@code rag.checkpoints.max-entries}; as entradas da sessão são
+ * descartadas quando ela termina.
+ */
+@ApplicationScoped
+public class StageCheckpoints {
+
+    private static final Logger LOG = Logger.getLogger(StageCheckpoints.class);
+
+    public static final String STAGE_RETRIEVAL = "retrieval";
+    public static final String RETRIEVAL_TEMPLATE = "RetrievalService.retrieve";
+
+    // Chave do metadata do MCPContext que leva a sessão para o MCPAgentService
+    public static final String SESSION_METADATA = "checkpoint-session";
+
+    private static final ThreadLocal<String> CURRENT_SESSION = new ThreadLocal<>();
+
+    private static final ConcurrentMap<String, String> TEMPLATES = new ConcurrentHashMap<>();
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @ConfigProperty(name = "rag.checkpoints.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    private Map<Key, Object> store;
+
+    @PostConstruct
+    void init() {
+        store = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Executa o bloco numa sessão nova de checkpoints, descartada ao final.
+     */
+    public <T> T withSession(Supplier<T> block) {
+        String session = UUID.randomUUID().toString();
+        try {
+            return joinSession(session, block);
+        } finally {
+            invalidate(session);
+        }
+    }
+
+    /**
+     * Executa o bloco numa sessão já existente (ex.: recebida no metadata do MCPContext); {@code null} = sem sessão.
+     */
+    public <T> T joinSession(String session, Supplier<T> block) {
+        if (session == null || session.isEmpty()) {
+            return block.get();
+        }
+        String previous = CURRENT_SESSION.get();
+        CURRENT_SESSION.set(session);
+        try {
+            return block.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SESSION.remove();
+            } else {
+                CURRENT_SESSION.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Sessão da thread corrente, ou {@code null}.
+     */
+    public String currentSession() {
+        return CURRENT_SESSION.get();
+    }
+
+    /**
+     * Resultado memorizado da etapa na sessão corrente, ou o valor calculado (e guardado) agora.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T memoize(String stage, String template, Supplier<T> computation, Object... inputs) {
+        String session = CURRENT_SESSION.get();
+        if (session == null) {
+            return computation.get();
+        }
+
+        Key key = new Key(session, stage, template, hash(inputs));
+        Object cached;
+        synchronized (store) {
+            cached = store.get(key);
+        }
+        if (cached != null) {
+            LOG.debugf("[Checkpoints] Reusing %s (%s)", stage, template);
+            metrics.recordCheckpoint(stage, true);
+            return (T) cached;
+        }
+
+        metrics.recordCheckpoint(stage, false);
+        T result = computation.get();
+        if (result != null) {
+            synchronized (store) {
+                store.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Identificador do template de um método de AI service: nome + hash das mensagens de sistema e usuário,
+     * para que uma mudança de prompt não reaproveite respostas antigas.
+     */
+    public static String template(Class<?> aiService, String method) {
+        return TEMPLATES.computeIfAbsent(aiService.getSimpleName() + "." + method, name -> {
+            Method target = Arrays.stream(aiService.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown AI service method " + name));
+            SystemMessage system = target.getAnnotation(SystemMessage.class);
+            UserMessage user = target.getAnnotation(UserMessage.class);
+            return name + "@" + hash(
+                system != null ? String.join("\n", system.value()) : "",
+                user != null ? String.join("\n", user.value()) : "").substring(0, 12);
+        });
+    }
+
+    private void invalidate(String session) {
+        synchronized (store) {
+            store.keySet().removeIf(key -> key.session().equals(session));
+        }
+    }
+
+    private static String hash(Object... inputs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object input : inputs) {
+                digest.update(String.valueOf(input).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Key(String session, String stage, String template, String inputsHash) {}
+}
@@ -2,6 +2,7 @@ package com.quarkus.rag.service;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.br.BrazilianAnalyzer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
@@ -38,6 +39,8 @@ public class TextPreprocessingService {
     private static final Pattern MULTIPLE_SPACES = Pattern.compile("\\s+");
     private static final Pattern SPECIAL_CHARS = Pattern.compile("[^\\p{L}\\p{N}\\s.,;:!?\\-]");
     private static final Pattern HTML_TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final CharArraySet STOP_WORDS = BrazilianAnalyzer.getDefaultStopSet();
 
     /**
      * Pré-processa texto para embeddings.
@@ -106,6 +109,24 @@ public class TextPreprocessingService {
         }
     }
 
+    /**
+     * Palavras-chave da pergunta: termos em lowercase sem stopwords, mas sem stemming
+     * (forma complementar ao {@link #preprocessForQuery(String)}).
+     */
+    public String extractKeywords(String query) {
+        if (query == null || query.isBlank()) {
+            return "";
+        }
+
+        List<String> keywords = new ArrayList<>();
+        for (String word : NON_WORD.split(normalizeText(query).toLowerCase())) {
+            if (word.length() >= 3 && !STOP_WORDS.contains(word) && !keywords.contains(word)) {
+                keywords.add(word);
+            }
+        }
+        return String.join(" ", keywords);
+    }
+
     /**
      * Garante que o texto está em UTF-8.
      */
@@ -0,0 +1,225 @@
+package com.quarkus.rag.service;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Split em segmentos medidos em tokens do modelo (tokenizer local), em vez de caracteres.
+ *
+ * O texto é quebrado em frases; cada frase passa pelo {@code normalizer} (o pré-processamento para
+ * embedding) antes de ser contada, de modo que o orçamento vale para o texto que de fato é embedado.
+ * As frases são agrupadas até {@code maxTokens}; quando um segmento é fechado por tamanho, as últimas
+ * frases (até {@code overlapTokens}) são repetidas no próximo.
+ *
+ * No modo semântico a estrutura do texto original (títulos e parágrafos) é usada antes da normalização:
+ * um título sempre abre um segmento novo (se o atual já tem um quarto do orçamento), um parágrafo que
+ * não cabe inteiro abre um segmento novo se o atual já está pela metade, e o overlap é adaptativo —
+ * só existe quando o corte cai no meio de um parágrafo.
+ */
+public class TokenAwareSplitter implements DocumentSplitter {
+
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?;])\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern MARKDOWN_HEADING = Pattern.compile("^#{1,6}\\s+.*");
+    private static final int HEADING_MAX_LENGTH = 80;
+
+    private final ToIntFunction<String> tokenCount;
+    private final UnaryOperator<String> normalizer;
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final boolean semantic;
+
+    public TokenAwareSplitter(ToIntFunction<String> tokenCount, UnaryOperator<String> normalizer,
+                              int maxTokens, int overlapTokens, boolean semantic) {
+        if (maxTokens <= 0 || overlapTokens < 0 || overlapTokens >= maxTokens) {
+            throw new IllegalArgumentException("Invalid token sizes: max=" + maxTokens + ", overlap=" + overlapTokens);
+        }
+        this.tokenCount = tokenCount;
+        this.normalizer = normalizer;
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+        this.semantic = semantic;
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        List<String> chunks = pack(units(document.text()));
+        List<TextSegment> segments = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            segments.add(TextSegment.from(chunks.get(i), document.metadata().copy().put("index", String.valueOf(i))));
+        }
+        return segments;
+    }
+
+    /**
+     * Frases normalizadas com a contagem de tokens e o tipo de fronteira antes de cada uma.
+     */
+    private List<Unit> units(String text) {
+        List<Unit> units = new ArrayList<>();
+        String normalizedNewlines = text.replace("\r\n", "\n");
+        String[] blocks = semantic ? BLANK_LINES.split(normalizedNewlines) : new String[] {normalizedNewlines};
+
+        Boundary next = Boundary.SECTION;
+        for (String block : blocks) {
+            String trimmed = block.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (semantic && isHeading(trimmed)) {
+                // O título fica colado ao parágrafo seguinte
+                next = add(units, trimmed.replaceFirst("^#+\\s*", ""), Boundary.SECTION);
+                continue;
+            }
+            // Linhas quebradas (ex.: PDF) voltam a formar o parágrafo
+            String paragraph = WHITESPACE.matcher(trimmed).replaceAll(" ");
+            for (String sentence : SENTENCE_END.split(paragraph)) {
+                next = add(units, sentence, next);
+            }
+            if (semantic && next == Boundary.NONE) {
+                next = Boundary.PARAGRAPH;
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Adiciona a frase (quebrada por palavras se sozinha passa do orçamento); devolve a fronteira da próxima.
+     */
+    private Boundary add(List<Unit> units, String sentence, Boundary before) {
+        String normalized = normalizer.apply(sentence);
+        if (normalized == null || normalized.isBlank()) {
+            return before;
+        }
+        int tokens = tokenCount.applyAsInt(normalized);
+        if (tokens <= maxTokens) {
+            units.add(new Unit(normalized, tokens, before));
+            return Boundary.NONE;
+        }
+
+        Boundary boundary = before;
+        StringBuilder piece = new StringBuilder();
+        int pieceTokens = 0;
+        for (String word : normalized.split(" ")) {
+            int wordTokens = tokenCount.applyAsInt(" " + word);
+            if (pieceTokens + wordTokens > maxTokens && !piece.isEmpty()) {
+                units.add(new Unit(piece.toString(), pieceTokens, boundary));
+                boundary = Boundary.NONE;
+                piece.setLength(0);
+                pieceTokens = 0;
+            }
+            if (!piece.isEmpty()) {
+                piece.append(' ');
+            }
+            piece.append(word);
+            pieceTokens += wordTokens;
+        }
+        if (!piece.isEmpty()) {
+            units.add(new Unit(piece.toString(), pieceTokens, boundary));
+        }
+        return Boundary.NONE;
+    }
+
+    private List<String> pack(List<Unit> units) {
+        int[] blockTokens = blockTokens(units);
+        List<String> chunks = new ArrayList<>();
+        List<Unit> current = new ArrayList<>();
+        int tokens = 0;
+
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
+            boolean semanticBreak = !current.isEmpty() && switch (unit.before()) {
+                case SECTION -> tokens >= maxTokens / 4;
+                case PARAGRAPH -> tokens >= maxTokens / 2 && tokens + blockTokens[i] > maxTokens;
+                case NONE -> false;
+            };
+            boolean full = tokens + unit.tokens() > maxTokens;
+
+            if (!current.isEmpty() && (semanticBreak || full)) {
+                chunks.add(join(current));
+                // Overlap só quando o corte quebra um parágrafo (sempre, fora do modo semântico)
+                boolean cleanBreak = semantic && (semanticBreak || unit.before() != Boundary.NONE);
+                current = cleanBreak ? new ArrayList<>() : overlap(current, unit.tokens());
+                tokens = current.stream().mapToInt(Unit::tokens).sum();
+            }
+            current.add(unit);
+            tokens += unit.tokens();
+        }
+        if (!current.isEmpty()) {
+            chunks.add(join(current));
+        }
+        return chunks;
+    }
+
+    /**
+     * Últimas frases do segmento fechado que cabem no overlap e ainda deixam espaço para a próxima frase.
+     */
+    private List<Unit> overlap(List<Unit> closed, int nextTokens) {
+        int budget = Math.min(overlapTokens, maxTokens - nextTokens);
+        List<Unit> tail = new ArrayList<>();
+        int tokens = 0;
+        for (int i = closed.size() - 1; i > 0; i--) {
+            Unit unit = closed.get(i);
+            if (tokens + unit.tokens() > budget) {
+                break;
+            }
+            tail.add(0, new Unit(unit.text(), unit.tokens(), Boundary.NONE));
+            tokens += unit.tokens();
+        }
+        return tail;
+    }
+
+    /**
+     * Para cada início de bloco (título ou parágrafo), o total de tokens até a próxima fronteira.
+     */
+    private static int[] blockTokens(List<Unit> units) {
+        int[] totals = new int[units.size()];
+        int start = 0;
+        int sum = 0;
+        for (int i = 0; i < units.size(); i++) {
+            if (i > 0 && units.get(i).before() != Boundary.NONE) {
+                totals[start] = sum;
+                start = i;
+                sum = 0;
+            }
+            sum += units.get(i).tokens();
+        }
+        if (!units.isEmpty()) {
+            totals[start] = sum;
+        }
+        return totals;
+    }
+
+    private static boolean isHeading(String block) {
+        if (MARKDOWN_HEADING.matcher(block).matches()) {
+            return true;
+        }
+        if (block.indexOf('\n') >= 0 || block.length() > HEADING_MAX_LENGTH) {
+            return false;
+        }
+        char last = block.charAt(block.length() - 1);
+        return last != '.' && last != ',' && last != ';' && last != '!' && last != '?';
+    }
+
+    private static String join(List<Unit> units) {
+        StringBuilder text = new StringBuilder();
+        for (Unit unit : units) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(unit.text());
+        }
+        return text.toString();
+    }
+
+    private enum Boundary { NONE, PARAGRAPH, SECTION }
+
+    private record Unit(String text, int tokens, Boundary before) {}
+}
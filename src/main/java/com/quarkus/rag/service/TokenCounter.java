@@ -0,0 +1,57 @@
+package com.quarkus.rag.service;
+
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Contagem local de tokens com o tokenizer do modelo de chat configurado (jtokkit/tiktoken),
+ * sem chamadas ao provedor.
+ */
+@ApplicationScoped
+public class TokenCounter {
+
+    private static final Logger LOG = Logger.getLogger(TokenCounter.class);
+
+    // Encoding o200k_base, usado pela família gpt-4o
+    private static final String FALLBACK_MODEL = "gpt-4o";
+
+    @ConfigProperty(name = "quarkus.langchain4j.openai.chat-model.model-name", defaultValue = FALLBACK_MODEL)
+    String modelName;
+
+    private Tokenizer tokenizer;
+
+    @PostConstruct
+    void init() {
+        tokenizer = createTokenizer(modelName);
+        if (tokenizer == null) {
+            LOG.warnf("No local tokenizer for model %s, using %s encoding", modelName, FALLBACK_MODEL);
+            tokenizer = createTokenizer(FALLBACK_MODEL);
+        }
+    }
+
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        if (tokenizer == null) {
+            // Aproximação usual de ~4 caracteres por token
+            return (text.length() + 3) / 4;
+        }
+        return tokenizer.estimateTokenCountInText(text);
+    }
+
+    private static Tokenizer createTokenizer(String model) {
+        try {
+            Tokenizer candidate = new OpenAiTokenizer(model);
+            // O tokenizer só falha na primeira estimativa quando o modelo é desconhecido
+            candidate.estimateTokenCountInText("probe");
+            return candidate;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
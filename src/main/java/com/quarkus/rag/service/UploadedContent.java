@@ -0,0 +1,176 @@
+package com.quarkus.rag.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Conteúdo de um upload para a ingestão, sem cópias do arquivo inteiro no heap.
+ *
+ * O arquivo temporário do multipart é mapeado em memória ({@link #map(Path)}); entradas de ZIP/TAR,
+ * que já chegam em memória, são apenas embrulhadas ({@link #of(byte[])}). Os parsers leem direto do
+ * {@link ByteBuffer}, e o SHA-256 é calculado sobre o mesmo buffer — no caso de texto, na mesma
+ * passada da decodificação ({@link #readText(Charset)}).
+ */
+public final class UploadedContent implements AutoCloseable {
+
+    // Fatia usada para decodificar e fazer o hash em conjunto
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private String sha256;
+
+    private UploadedContent(ByteBuffer buffer, FileChannel channel) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.channel = channel;
+    }
+
+    /**
+     * Mapeia o arquivo (somente leitura); as páginas são carregadas pelo SO sob demanda.
+     */
+    public static UploadedContent map(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + size + " bytes");
+            }
+            return new UploadedContent(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static UploadedContent of(byte[] content) {
+        return new UploadedContent(ByteBuffer.wrap(content), null);
+    }
+
+    public long size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Visão independente do conteúdo (posição 0), sem copiar os bytes.
+     */
+    public ByteBuffer buffer() {
+        return buffer.duplicate().rewind();
+    }
+
+    /**
+     * Stream sobre o buffer, para parsers que só aceitam {@link InputStream}.
+     */
+    public InputStream inputStream() {
+        ByteBuffer source = buffer();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return source.hasRemaining() ? source.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] target, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, source.remaining());
+                source.get(target, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return source.remaining();
+            }
+        };
+    }
+
+    /**
+     * Decodifica o conteúdo como texto calculando o SHA-256 na mesma passada.
+     */
+    public String readText(Charset charset) {
+        MessageDigest digest = sha256 == null ? newDigest() : null;
+        CharsetDecoder decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer text = CharBuffer.allocate((int) Math.min(Integer.MAX_VALUE,
+            (long) (size() * (double) decoder.maxCharsPerByte()) + 1));
+
+        ByteBuffer source = buffer();
+        int end = source.limit();
+        int hashed = 0;
+        while (hashed < end) {
+            // Um caractere multibyte cortado no fim da fatia fica em source e é decodificado na próxima;
+            // o hash avança só sobre bytes novos
+            int limit = Math.min(end, source.position() + CHUNK_SIZE);
+            if (digest != null) {
+                digest.update(buffer().limit(limit).position(hashed));
+            }
+            hashed = limit;
+            source.limit(limit);
+            check(decoder.decode(source, text, false));
+        }
+        source.limit(end);
+        check(decoder.decode(source, text, true));
+        check(decoder.flush(text));
+
+        if (digest != null) {
+            sha256 = HexFormat.of().formatHex(digest.digest());
+        }
+        return text.flip().toString();
+    }
+
+    /**
+     * SHA-256 do conteúdo em hexadecimal (calculado uma vez, sobre o buffer).
+     */
+    public String sha256() {
+        if (sha256 == null) {
+            MessageDigest digest = newDigest();
+            digest.update(buffer());
+            sha256 = HexFormat.of().formatHex(digest.digest());
+        }
+        return sha256;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private static void check(CoderResult result) {
+        if (result.isError()) {
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
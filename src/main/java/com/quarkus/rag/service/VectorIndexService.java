@@ -0,0 +1,778 @@
+package com.quarkus.rag.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quarkus.rag.dto.admin.RecallPoint;
+import com.quarkus.rag.dto.admin.RecallReport;
+import com.quarkus.rag.dto.admin.VectorIndexStatus;
+import com.quarkus.rag.dto.retrieval.RetrievalFilter;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Ciclo de vida do índice ANN (HNSW ou IVFFlat) da tabela de embeddings do pgvector.
+ *
+ * - No startup, converte a coluna {@code metadata} de uma tabela antiga ({@code json}) para {@code jsonb}
+ *   antes de criar o índice
+ * - Cria o índice no startup (ou na primeira verificação após a tabela existir)
+ * - Reconstrói o índice quando o corpus cresce além de {@code rag.vector-index.reindex-growth-factor}
+ *   (necessário no IVFFlat, cujas listas são calculadas no build)
+ * - Aplica {@code hnsw.ef_search}/{@code ivfflat.probes} por consulta, em uma transação própria
+ * - Em buscas filtradas, evita que o índice devolva só os vizinhos globais e o filtro descarte todos
+ *   (ver {@link #filteredTuning})
+ * - Mede o trade-off recall/latência contra a busca exata
+ *
+ * O índice usa {@code vector_cosine_ops}, o mesmo operador ({@code <=>}) usado pelo PgVectorEmbeddingStore.
+ *
+ * Com {@code rag.vector-index.quantization} o índice é construído sobre uma representação compacta
+ * ({@code halfvec}: 2 bytes por dimensão; {@code binary}: 1 bit por dimensão) e a busca é feita em duas
+ * etapas: candidatos pelo índice compacto e reordenação pela distância exata da coluna {@code vector},
+ * que continua com precisão total.
+ */
+@ApplicationScoped
+public class VectorIndexService {
+
+    private static final Logger LOG = Logger.getLogger(VectorIndexService.class);
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Set<String> INDEX_TYPES = Set.of("hnsw", "ivfflat", "none");
+    private static final Set<String> QUANTIZATIONS = Set.of("none", "halfvec", "binary");
+    // ef_search padrão do pgvector, usado quando a configuração não define um valor
+    private static final int PGVECTOR_DEFAULT_EF_SEARCH = 40;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "quarkus.langchain4j.pgvector.dimension")
+    int dimension;
+
+    @ConfigProperty(name = "quarkus.langchain4j.pgvector.table", defaultValue = "embeddings")
+    String table;
+
+    @ConfigProperty(name = "rag.vector-index.type", defaultValue = "hnsw")
+    String indexType;
+
+    @ConfigProperty(name = "rag.vector-index.hnsw.m", defaultValue = "16")
+    int hnswM;
+
+    @ConfigProperty(name = "rag.vector-index.hnsw.ef-construction", defaultValue = "64")
+    int hnswEfConstruction;
+
+    @ConfigProperty(name = "rag.vector-index.hnsw.ef-search")
+    Optional<Integer> defaultEfSearch;
+
+    // ef_search mínimo das buscas com filtro de tipo/data (o filtro é aplicado depois do scan do HNSW)
+    @ConfigProperty(name = "rag.vector-index.filtered.ef-search", defaultValue = "400")
+    int filteredEfSearch;
+
+    // 0 = automático (linhas / 1000, mínimo 10)
+    @ConfigProperty(name = "rag.vector-index.ivfflat.lists", defaultValue = "0")
+    int ivfflatLists;
+
+    @ConfigProperty(name = "rag.vector-index.ivfflat.probes")
+    Optional<Integer> defaultProbes;
+
+    @ConfigProperty(name = "rag.vector-index.reindex-growth-factor", defaultValue = "2.0")
+    double reindexGrowthFactor;
+
+    @ConfigProperty(name = "rag.vector-index.quantization", defaultValue = "none")
+    String quantization;
+
+    // Converte metadata json -> jsonb no start (reescreve a tabela sob lock exclusivo)
+    @ConfigProperty(name = "rag.embeddings.migrate-metadata", defaultValue = "true")
+    boolean migrateMetadata;
+
+    // Candidatos buscados no índice compacto por resultado final, antes da reordenação exata
+    @ConfigProperty(name = "rag.vector-index.quantization.rescore-multiplier", defaultValue = "4")
+    int rescoreMultiplier;
+
+    private final AtomicLong rowsAtLastBuild = new AtomicLong(-1);
+    // Versão do pgvector tem iterative_scan (0.8+); null = ainda não consultado
+    private volatile Boolean iterativeScanSupported;
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            ensureJsonbMetadata();
+        } catch (RuntimeException e) {
+            LOG.warn("[Vector Index] Could not check the metadata column type", e);
+        }
+        if (!isEnabled()) {
+            LOG.info("[Vector Index] ANN index management disabled");
+            return;
+        }
+        try {
+            ensureIndex();
+        } catch (RuntimeException e) {
+            LOG.warn("[Vector Index] Could not create index at startup, will retry on next check", e);
+        }
+    }
+
+    @Scheduled(every = "${rag.vector-index.check-interval:10m}", delayed = "1m",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledMaintenance() {
+        maintain();
+    }
+
+    void onCorpusChanged(@ObservesAsync CorpusChangedEvent event) {
+        if (event.segmentsAdded() > 0) {
+            maintain();
+        }
+    }
+
+    /**
+     * Cria o índice se ele não existir. Retorna false se a tabela ainda não foi criada.
+     */
+    public synchronized boolean ensureIndex() {
+        if (!isEnabled()) {
+            return false;
+        }
+        return withConnection(connection -> {
+            if (!tableExists(connection)) {
+                return false;
+            }
+            IndexInfo index = findIndex(connection);
+            if (index != null && !index.valid()) {
+                // Sobra de um CREATE INDEX CONCURRENTLY interrompido
+                LOG.warnf("[Vector Index] Dropping invalid index %s", index.name());
+                execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + index.name());
+                index = null;
+            }
+            if (index == null) {
+                long rows = estimateRows(connection);
+                LOG.infof("[Vector Index] Creating %s index %s on %s (%d rows)", type(), indexName(), table, rows);
+                execute(connection, createIndexSql(indexName(), rows));
+                rowsAtLastBuild.set(rows);
+                dropStaleIndexes(connection);
+            } else if (rowsAtLastBuild.get() < 0) {
+                rowsAtLastBuild.set(estimateRows(connection));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * A store usa {@code COMBINED_JSONB}, mas só cria a tabela quando ela não existe: uma tabela criada no
+     * modo padrão anterior tem {@code metadata} em {@code json} e é convertida aqui. Sem a coluna (layout
+     * {@code COLUMN_PER_KEY}) só avisa: filtros e deletes por {@code document_id} não funcionam até a
+     * tabela ser recriada.
+     */
+    private void ensureJsonbMetadata() {
+        String type = withConnection(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT data_type FROM information_schema.columns"
+                        + " WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'metadata'")) {
+                statement.setString(1, table);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        });
+        if (type == null) {
+            if (withConnection(this::tableExists)) {
+                LOG.warnf("[Vector Index] Table %s has no metadata column: filtered searches and document deletes"
+                    + " will fail until it is dropped and the documents are re-ingested", table);
+            }
+            return;
+        }
+        if ("jsonb".equals(type)) {
+            return;
+        }
+        if (!migrateMetadata) {
+            LOG.warnf("[Vector Index] %s.metadata is %s, not jsonb; set rag.embeddings.migrate-metadata=true"
+                + " or migrate it manually", table, type);
+            return;
+        }
+        LOG.infof("[Vector Index] Migrating %s.metadata from %s to jsonb", table, type);
+        withConnection(connection -> {
+            execute(connection, "ALTER TABLE " + table + " ALTER COLUMN metadata TYPE jsonb USING metadata::text::jsonb");
+            return null;
+        });
+    }
+
+    /**
+     * Verificação periódica: cria o índice se faltar e reconstrói após crescimento do corpus.
+     */
+    public synchronized void maintain() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            if (!ensureIndex()) {
+                return;
+            }
+            long rows = withConnection(this::estimateRows);
+            long built = rowsAtLastBuild.get();
+            if (built >= 0 && rows > Math.max(built, 1) * reindexGrowthFactor) {
+                LOG.infof("[Vector Index] Corpus grew from %d to %d rows, rebuilding index", built, rows);
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("[Vector Index] Maintenance failed", e);
+        }
+    }
+
+    /**
+     * Reconstrói o índice sem bloquear escritas: cria um novo índice CONCURRENTLY e troca pelo antigo.
+     * No IVFFlat as listas são recalculadas para o tamanho atual da tabela.
+     */
+    public synchronized VectorIndexStatus rebuild() {
+        if (!isEnabled()) {
+            return status();
+        }
+        withConnection(connection -> {
+            if (!tableExists(connection)) {
+                return null;
+            }
+            long rows = estimateRows(connection);
+            String temporary = indexName() + "_new";
+            execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + temporary);
+            execute(connection, createIndexSql(temporary, rows));
+            execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + indexName());
+            execute(connection, "ALTER INDEX " + temporary + " RENAME TO " + indexName());
+            rowsAtLastBuild.set(rows);
+            return null;
+        });
+        return status();
+    }
+
+    public VectorIndexStatus status() {
+        return withConnection(connection -> {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            parameters.put("quantization", quantization());
+            if (isQuantized()) {
+                parameters.put("rescore_multiplier", rescoreMultiplier);
+            }
+            if ("hnsw".equals(type())) {
+                parameters.put("m", hnswM);
+                parameters.put("ef_construction", hnswEfConstruction);
+                parameters.put("ef_search", defaultEfSearch.orElse(null));
+            } else if ("ivfflat".equals(type())) {
+                parameters.put("lists", ivfflatLists > 0 ? ivfflatLists : "auto");
+                parameters.put("probes", defaultProbes.orElse(null));
+            }
+
+            if (!tableExists(connection)) {
+                return new VectorIndexStatus(table, type(), indexName(), false, false, 0, 0, -1, parameters);
+            }
+
+            long rows = countRows(connection);
+            IndexInfo index = findIndex(connection);
+            return new VectorIndexStatus(
+                table,
+                type(),
+                index != null ? index.name() : indexName(),
+                index != null,
+                index != null && index.valid(),
+                index != null ? index.sizeBytes() : 0,
+                rows,
+                rowsAtLastBuild.get(),
+                parameters
+            );
+        });
+    }
+
+    /**
+     * Parâmetros de busca padrão (configuração), aplicados quando a consulta não informa os seus.
+     */
+    public VectorSearchTuning defaultTuning() {
+        return new VectorSearchTuning(defaultEfSearch.orElse(null), defaultProbes.orElse(null));
+    }
+
+    /**
+     * Executa a busca com os parâmetros do índice definidos apenas para ela ({@code set_config(..., true)}
+     * vale até o fim da transação). A conexão da transação é a mesma usada pelo embedding store.
+     */
+    public <T> T withTuning(VectorSearchTuning tuning, Supplier<T> search) {
+        if (tuning == null || tuning.isDefault()) {
+            return search.get();
+        }
+        return QuarkusTransaction.requiringNew().call(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                applyTuning(connection, tuning);
+            }
+            return search.get();
+        });
+    }
+
+    public boolean isQuantized() {
+        return isEnabled() && !"none".equals(quantization());
+    }
+
+    /**
+     * Busca em duas etapas sobre o índice quantizado: {@code maxResults × rescore-multiplier} candidatos
+     * pela distância aproximada, reordenados pela distância de cosseno exata. O score segue a mesma
+     * escala do PgVectorEmbeddingStore ({@code (2 - distância) / 2}).
+     */
+    public List<EmbeddingMatch<TextSegment>> searchQuantized(Embedding queryEmbedding, int maxResults,
+                                                             double minScore, RetrievalFilter filter,
+                                                             VectorSearchTuning tuning) {
+        String vector = toVectorLiteral(queryEmbedding.vector());
+        int candidates = maxResults * Math.max(1, rescoreMultiplier);
+        VectorSearchTuning effective = filteredTuning(tuning, candidates, filter);
+
+        return QuarkusTransaction.requiringNew().call(() -> withConnection(connection -> {
+            applyTuning(connection, effective);
+
+            List<Object> parameters = new ArrayList<>();
+            String condition = SegmentMetadata.toSqlCondition(filter, parameters);
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT embedding_id, embedding::text, text, metadata::text, (2 - distance) / 2 AS score FROM ("
+                        + "SELECT embedding_id, embedding, text, metadata, embedding <=> ?::vector AS distance FROM ("
+                        + "SELECT embedding_id, embedding, text, metadata FROM " + table
+                        + " WHERE " + condition
+                        + " ORDER BY " + quantizedDistance() + " LIMIT ?) candidates) rescored"
+                        + " ORDER BY distance LIMIT ?")) {
+                int index = 1;
+                statement.setString(index++, vector);
+                for (Object parameter : parameters) {
+                    statement.setObject(index++, parameter);
+                }
+                statement.setString(index++, vector);
+                statement.setInt(index++, candidates);
+                statement.setInt(index, maxResults);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        double score = rs.getDouble(5);
+                        if (score < minScore) {
+                            continue;
+                        }
+                        String text = rs.getString(3);
+                        TextSegment segment = text == null ? null
+                            : TextSegment.from(text, SegmentMetadata.fromJson(parseMetadata(rs.getString(4))));
+                        matches.add(new EmbeddingMatch<>(score, rs.getString(1), parseVector(rs.getString(2)), segment));
+                    }
+                }
+            }
+            return matches;
+        }));
+    }
+
+    /**
+     * Compara o índice ANN com a busca exata usando vetores amostrados da própria tabela.
+     */
+    public RecallReport evaluate(int sampleSize, int maxResults, List<Integer> values) {
+        String parameter = "ivfflat".equals(type()) ? "probes" : "ef_search";
+        List<Integer> settings = values == null || values.isEmpty()
+            ? ("probes".equals(parameter) ? List.of(1, 5, 10, 20) : List.of(20, 40, 100, 200))
+            : values;
+
+        return withConnection(connection -> {
+            List<String> samples = sampleVectors(connection, sampleSize);
+            List<Set<String>> exactResults = new ArrayList<>();
+            long[] exactLatencies = new long[samples.size()];
+
+            for (int i = 0; i < samples.size(); i++) {
+                long start = System.nanoTime();
+                exactResults.add(search(connection, samples.get(i), maxResults, null, true));
+                exactLatencies[i] = System.nanoTime() - start;
+            }
+
+            List<RecallPoint> points = new ArrayList<>();
+            for (Integer value : settings) {
+                VectorSearchTuning tuning = "probes".equals(parameter)
+                    ? VectorSearchTuning.probes(value)
+                    : VectorSearchTuning.efSearch(value);
+                long[] latencies = new long[samples.size()];
+                double recallSum = 0;
+                for (int i = 0; i < samples.size(); i++) {
+                    long start = System.nanoTime();
+                    Set<String> approximate = search(connection, samples.get(i), maxResults, tuning, false);
+                    latencies[i] = System.nanoTime() - start;
+
+                    Set<String> exact = exactResults.get(i);
+                    approximate.retainAll(exact);
+                    recallSum += exact.isEmpty() ? 1.0 : (double) approximate.size() / exact.size();
+                }
+                points.add(new RecallPoint(parameter, value, recallSum / Math.max(1, samples.size()),
+                    averageMs(latencies), percentileMs(latencies, 0.95)));
+            }
+
+            String indexLabel = isQuantized() ? type() + "+" + quantization() : type();
+            return new RecallReport(indexLabel, samples.size(), maxResults,
+                averageMs(exactLatencies), percentileMs(exactLatencies, 0.95), points);
+        });
+    }
+
+    private Set<String> search(Connection connection, String vector, int maxResults,
+                               VectorSearchTuning tuning, boolean exact) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            if (exact) {
+                execute(connection, "SET LOCAL enable_indexscan = off");
+                execute(connection, "SET LOCAL enable_bitmapscan = off");
+            } else if (tuning != null && !isQuantized()) {
+                applyTuning(connection, tuning);
+            }
+
+            Set<String> ids = new HashSet<>();
+            boolean rescoring = !exact && isQuantized();
+            if (rescoring) {
+                applyTuning(connection, coveringTuning(tuning, maxResults * Math.max(1, rescoreMultiplier)));
+            }
+            String sql = rescoring
+                ? "SELECT embedding_id FROM (SELECT embedding_id, embedding FROM " + table
+                    + " ORDER BY " + quantizedDistance() + " LIMIT ?) candidates"
+                    + " ORDER BY embedding <=> ?::vector LIMIT ?"
+                : "SELECT embedding_id FROM " + table + " ORDER BY embedding <=> ?::vector LIMIT ?";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                if (rescoring) {
+                    statement.setString(index++, vector);
+                    statement.setInt(index++, maxResults * Math.max(1, rescoreMultiplier));
+                }
+                statement.setString(index++, vector);
+                statement.setInt(index, maxResults);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getString(1));
+                    }
+                }
+            }
+            connection.commit();
+            return ids;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void applyTuning(Connection connection, VectorSearchTuning tuning) throws SQLException {
+        if (tuning.efSearch() != null) {
+            setLocal(connection, "hnsw.ef_search", String.valueOf(tuning.efSearch()));
+        }
+        if (tuning.probes() != null) {
+            setLocal(connection, "ivfflat.probes", String.valueOf(tuning.probes()));
+        }
+        if (tuning.iterativeScan() != null) {
+            setLocal(connection, type() + ".iterative_scan", tuning.iterativeScan());
+        }
+        if (tuning.exactScan()) {
+            // Só o index scan: o bitmap scan sobre o índice de document_id continua disponível
+            setLocal(connection, "enable_indexscan", "off");
+        }
+    }
+
+    private static void setLocal(Connection connection, String name, String value) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT set_config(?, ?, true)")) {
+            statement.setString(1, name);
+            statement.setString(2, value);
+            statement.execute();
+        }
+    }
+
+    private List<String> sampleVectors(Connection connection, int sampleSize) throws SQLException {
+        List<String> samples = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT embedding::text FROM " + table + " ORDER BY random() LIMIT ?")) {
+            statement.setInt(1, sampleSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    samples.add(rs.getString(1));
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * CONCURRENTLY para não bloquear a ingestão durante o build (exige conexão em autocommit).
+     */
+    private String createIndexSql(String name, long rows) {
+        if ("ivfflat".equals(type())) {
+            int lists = ivfflatLists > 0 ? ivfflatLists : (int) Math.max(10, rows / 1000);
+            return "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + table
+                + " USING ivfflat (" + indexedColumn() + ") WITH (lists = " + lists + ")";
+        }
+        return "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + table
+            + " USING hnsw (" + indexedColumn() + ") WITH (m = " + hnswM
+            + ", ef_construction = " + hnswEfConstruction + ")";
+    }
+
+    /**
+     * Expressão indexada e operator class; precisa ser idêntica à usada em {@link #quantizedDistance()}
+     * para o planner escolher o índice.
+     */
+    private String indexedColumn() {
+        return switch (quantization()) {
+            case "halfvec" -> "(embedding::halfvec(" + dimension + ")) halfvec_cosine_ops";
+            case "binary" -> "(binary_quantize(embedding)::bit(" + dimension + ")) bit_hamming_ops";
+            default -> "embedding vector_cosine_ops";
+        };
+    }
+
+    /**
+     * Distância aproximada da primeira etapa; o único parâmetro é o vetor da consulta.
+     */
+    private String quantizedDistance() {
+        return switch (quantization()) {
+            case "halfvec" -> "embedding::halfvec(" + dimension + ") <=> ?::halfvec(" + dimension + ")";
+            case "binary" -> "binary_quantize(embedding)::bit(" + dimension + ") <~> binary_quantize(?::vector)";
+            default -> "embedding <=> ?::vector";
+        };
+    }
+
+    /**
+     * O HNSW devolve no máximo {@code ef_search} linhas, então ele precisa cobrir todos os candidatos
+     * pedidos (over-fetch do re-ranking/MMR ou da reordenação); sem isso a busca corta em 40 em silêncio.
+     */
+    public VectorSearchTuning coveringTuning(VectorSearchTuning tuning, int candidates) {
+        VectorSearchTuning base = tuning != null ? tuning : VectorSearchTuning.DEFAULT;
+        if (!"hnsw".equals(type())) {
+            return base;
+        }
+        int efSearch = base.efSearch() != null ? base.efSearch() : defaultEfSearch.orElse(PGVECTOR_DEFAULT_EF_SEARCH);
+        if (efSearch >= candidates) {
+            return base;
+        }
+        return new VectorSearchTuning(candidates, base.probes());
+    }
+
+    /**
+     * Parâmetros de uma busca com filtro. O pgvector aplica o {@code WHERE} depois do scan do índice, que
+     * devolve no máximo {@code ef_search} linhas (HNSW) ou as das listas visitadas (IVFFlat): se os
+     * segmentos do filtro não estão entre esses vizinhos globais, a busca volta com menos linhas, ou nenhuma.
+     *
+     * - {@code documentIds}: filtro seletivo, busca exata (sem o índice ANN; as linhas vêm do índice de
+     *   {@code document_id})
+     * - demais filtros: {@code iterative_scan} no pgvector 0.8+ ({@code strict_order} no HNSW,
+     *   {@code relaxed_order} no IVFFlat) e, no HNSW, {@code ef_search} de pelo menos
+     *   {@code rag.vector-index.filtered.ef-search}; IVFFlat sem iterative scan cai na busca exata
+     */
+    public VectorSearchTuning filteredTuning(VectorSearchTuning tuning, int candidates, RetrievalFilter filter) {
+        VectorSearchTuning covering = coveringTuning(tuning, candidates);
+        if (filter == null || filter.isEmpty() || !isEnabled()) {
+            return covering;
+        }
+        if (filter.documentIds() != null && !filter.documentIds().isEmpty()) {
+            return covering.exact();
+        }
+        boolean iterative = supportsIterativeScan();
+        if ("hnsw".equals(type())) {
+            int efSearch = covering.efSearch() != null ? covering.efSearch()
+                : defaultEfSearch.orElse(PGVECTOR_DEFAULT_EF_SEARCH);
+            VectorSearchTuning filtered = covering.withEfSearch(Math.max(efSearch, filteredEfSearch));
+            return iterative ? filtered.withIterativeScan("strict_order") : filtered;
+        }
+        return iterative ? covering.withIterativeScan("relaxed_order") : covering.exact();
+    }
+
+    private boolean supportsIterativeScan() {
+        Boolean supported = iterativeScanSupported;
+        if (supported == null) {
+            supported = withConnection(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT extversion FROM pg_extension WHERE extname = 'vector'")) {
+                    return rs.next() && isAtLeast(rs.getString(1), 0, 8);
+                }
+            });
+            iterativeScanSupported = supported;
+            LOG.infof("[Vector Index] Filtered searches use %s", supported ? "iterative index scans" : "a raised ef_search");
+        }
+        return supported;
+    }
+
+    static boolean isAtLeast(String version, int major, int minor) {
+        String[] parts = version.split("\\.");
+        try {
+            int actualMajor = Integer.parseInt(parts[0]);
+            int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Remove índices gerenciados de outro tipo/quantização (ex.: após trocar a configuração),
+     * liberando a memória do índice anterior.
+     */
+    private void dropStaleIndexes(Connection connection) throws SQLException {
+        for (String type : INDEX_TYPES) {
+            for (String quantizationMode : QUANTIZATIONS) {
+                String name = indexName(type, quantizationMode);
+                if (!"none".equals(type) && !name.equals(indexName())) {
+                    execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+                }
+            }
+        }
+    }
+
+    private IndexInfo findIndex(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT i.relname, ix.indisvalid, pg_relation_size(i.oid)
+                FROM pg_index ix
+                JOIN pg_class i ON i.oid = ix.indexrelid
+                JOIN pg_class t ON t.oid = ix.indrelid
+                JOIN pg_am am ON am.oid = i.relam
+                WHERE t.relname = ? AND am.amname = ? AND i.relname = ?
+                """)) {
+            statement.setString(1, table);
+            statement.setString(2, type());
+            statement.setString(3, indexName());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new IndexInfo(rs.getString(1), rs.getBoolean(2), rs.getLong(3)) : null;
+            }
+        }
+    }
+
+    private boolean tableExists(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private long estimateRows(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE relname = ?")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                long estimate = rs.next() ? rs.getLong(1) : 0;
+                // reltuples fica em 0 até o primeiro ANALYZE/VACUUM
+                return estimate > 0 ? estimate : countRows(connection);
+            }
+        }
+    }
+
+    private long countRows(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private <T> T withConnection(SqlFunction<T> work) {
+        if (!IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalStateException("Invalid pgvector table name: " + table);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return work.apply(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Vector index operation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isEnabled() {
+        return !"none".equals(type());
+    }
+
+    private String type() {
+        String type = indexType.toLowerCase();
+        if (!INDEX_TYPES.contains(type)) {
+            throw new IllegalStateException("rag.vector-index.type must be one of " + INDEX_TYPES);
+        }
+        return type;
+    }
+
+    private String quantization() {
+        String mode = quantization.toLowerCase();
+        if (!QUANTIZATIONS.contains(mode)) {
+            throw new IllegalStateException("rag.vector-index.quantization must be one of " + QUANTIZATIONS);
+        }
+        return mode;
+    }
+
+    private String indexName() {
+        return indexName(type(), quantization());
+    }
+
+    private String indexName(String type, String quantizationMode) {
+        return table + "_embedding_" + type + ("none".equals(quantizationMode) ? "" : "_" + quantizationMode) + "_idx";
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid segment metadata: " + e.getMessage(), e);
+        }
+    }
+
+    private static String toVectorLiteral(float[] vector) {
+        StringBuilder literal = new StringBuilder(vector.length * 10).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(vector[i]);
+        }
+        return literal.append(']').toString();
+    }
+
+    private static Embedding parseVector(String text) {
+        String[] values = text.substring(1, text.length() - 1).split(",");
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = Float.parseFloat(values[i]);
+        }
+        return Embedding.from(vector);
+    }
+
+    private static double averageMs(long[] nanos) {
+        return Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+    }
+
+    private static double percentileMs(long[] nanos, double percentile) {
+        if (nanos.length == 0) {
+            return 0;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private record IndexInfo(String name, boolean valid, long sizeBytes) {}
+}
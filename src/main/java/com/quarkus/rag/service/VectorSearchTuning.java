@@ -0,0 +1,43 @@
+package com.quarkus.rag.service;
+
+/**
+ * Parâmetros de busca do índice ANN aplicados a uma única consulta.
+ *
+ * @param efSearch      tamanho da lista de candidatos do HNSW ({@code hnsw.ef_search}); null = padrão do banco
+ * @param probes        listas visitadas no IVFFlat ({@code ivfflat.probes}); null = padrão do banco
+ * @param iterativeScan modo de {@code hnsw.iterative_scan}/{@code ivfflat.iterative_scan} (pgvector 0.8+),
+ *                      que continua varrendo o índice até o filtro devolver linhas suficientes; null = desligado
+ * @param exactScan     desliga o index scan (busca exata), para filtros seletivos
+ */
+public record VectorSearchTuning(Integer efSearch, Integer probes, String iterativeScan, boolean exactScan) {
+
+    public static final VectorSearchTuning DEFAULT = new VectorSearchTuning(null, null);
+
+    public VectorSearchTuning(Integer efSearch, Integer probes) {
+        this(efSearch, probes, null, false);
+    }
+
+    public static VectorSearchTuning efSearch(int efSearch) {
+        return new VectorSearchTuning(efSearch, null);
+    }
+
+    public static VectorSearchTuning probes(int probes) {
+        return new VectorSearchTuning(null, probes);
+    }
+
+    public VectorSearchTuning withEfSearch(int efSearch) {
+        return new VectorSearchTuning(efSearch, probes, iterativeScan, exactScan);
+    }
+
+    public VectorSearchTuning withIterativeScan(String mode) {
+        return new VectorSearchTuning(efSearch, probes, mode, exactScan);
+    }
+
+    public VectorSearchTuning exact() {
+        return new VectorSearchTuning(efSearch, probes, iterativeScan, true);
+    }
+
+    public boolean isDefault() {
+        return efSearch == null && probes == null && iterativeScan == null && !exactScan;
+    }
+}
@@ -0,0 +1,26 @@
+package com.quarkus.rag.tracing;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Exportador de spans em OTLP/JSON para uso offline.
+ *
+ * Os spans são escritos no logger {@code io.opentelemetry.exporter.logging.otlp}, que em
+ * application.properties é direcionado para um arquivo próprio (uma linha OTLP/JSON por lote),
+ * legível pelo receiver {@code otlpjsonfile} do OpenTelemetry Collector.
+ */
+@ApplicationScoped
+public class FileSpanExporterProducer {
+
+    @Produces
+    @Singleton
+    @IfBuildProperty(name = "rag.tracing.file-exporter.enabled", stringValue = "true", enableIfMissing = true)
+    SpanExporter fileSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
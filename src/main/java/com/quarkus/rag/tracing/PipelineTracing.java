@@ -0,0 +1,116 @@
+package com.quarkus.rag.tracing;
+
+import com.quarkus.rag.mcp.proto.MCPContext;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Spans OpenTelemetry para as etapas dos pipelines e propagação do contexto W3C
+ * ({@code traceparent}/{@code tracestate}) através de {@link MCPContext#getMetadataMap()}.
+ *
+ * As chamadas MCP entre orquestrador e agentes são in-process, então o contexto de trace
+ * viaja no próprio payload protobuf: o lado cliente injeta no metadata e o lado servidor
+ * extrai para continuar o mesmo trace.
+ */
+@ApplicationScoped
+public class PipelineTracing {
+
+    private static final TextMapSetter<MCPContext.Builder> MCP_SETTER =
+        (builder, key, value) -> builder.putMetadata(key, value);
+
+    private static final TextMapGetter<MCPContext> MCP_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(MCPContext carrier) {
+            return carrier.getMetadataMap().keySet();
+        }
+
+        @Override
+        public String get(MCPContext carrier, String key) {
+            return carrier == null ? null : carrier.getMetadataMap().get(key);
+        }
+    };
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    /**
+     * Executa o bloco dentro de um span interno filho do span corrente.
+     */
+    public <T> T span(String name, Supplier<T> block) {
+        return inSpan(name, SpanKind.INTERNAL, Context.current(), block);
+    }
+
+    /**
+     * Span de cliente para uma chamada MCP/gRPC. O contexto MCP criado dentro do bloco
+     * deve passar por {@link #inject(MCPContext.Builder)} para carregar este span.
+     */
+    public <T> T clientCall(String method, Supplier<T> block) {
+        return inSpan("AgentCommunicationService/" + method, SpanKind.CLIENT, Context.current(), block);
+    }
+
+    /**
+     * Span de servidor para uma chamada MCP/gRPC, continuando o trace recebido no metadata.
+     */
+    public <T> T serverCall(String method, MCPContext requestContext, Supplier<T> block) {
+        Context parent = openTelemetry.getPropagators().getTextMapPropagator()
+            .extract(Context.current(), requestContext, MCP_GETTER);
+        return inSpan("AgentCommunicationService/" + method, SpanKind.SERVER, parent, block);
+    }
+
+    /**
+     * Escreve o contexto de trace corrente no metadata do contexto MCP.
+     */
+    public MCPContext.Builder inject(MCPContext.Builder builder) {
+        openTelemetry.getPropagators().getTextMapPropagator().inject(Context.current(), builder, MCP_SETTER);
+        return builder;
+    }
+
+    /**
+     * Adiciona um atributo ao span corrente (no-op se não houver span ativo).
+     */
+    public void attribute(String key, String value) {
+        Span.current().setAttribute(key, value);
+    }
+
+    public void attribute(String key, long value) {
+        Span.current().setAttribute(key, value);
+    }
+
+    /**
+     * Executor cujas tarefas herdam o contexto de trace de quem as submeteu.
+     */
+    public ExecutorService contextPropagating(ExecutorService executor) {
+        return Context.taskWrapping(executor);
+    }
+
+    private <T> T inSpan(String name, SpanKind kind, Context parent, Supplier<T> block) {
+        Span span = tracer.spanBuilder(name)
+            .setSpanKind(kind)
+            .setParent(parent)
+            .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return block.get();
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, e.getMessage());
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.quarkus.rag.vector;
+
+/**
+ * Vetor quantizado em int8 simétrico: {@code valor ≈ values[i] * scale}. Usa 1/4 da memória do
+ * {@code float[]} e o produto escalar é feito em aritmética inteira.
+ */
+public record Int8Vector(byte[] values, float scale) {
+
+    public static Int8Vector quantize(float[] vector) {
+        float maxAbs = 0;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs == 0 ? 1 : maxAbs / 127f;
+        byte[] values = new byte[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = (byte) Math.round(vector[i] / scale);
+        }
+        return new Int8Vector(values, scale);
+    }
+
+    /**
+     * Produto escalar aproximado com outro vetor quantizado.
+     */
+    public float dot(Int8Vector other) {
+        return VectorMath.dotInt8(values, other.values) * scale * other.scale;
+    }
+}
@@ -0,0 +1,41 @@
+package com.quarkus.rag.vector;
+
+/**
+ * Implementação de referência em laços escalares; usada quando a Vector API não está disponível.
+ */
+final class ScalarKernels implements SimilarityKernels {
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float cosine(float[] a, float[] b) {
+        float dot = 0;
+        float normA = 0;
+        float normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0 || normB == 0) {
+            return 0;
+        }
+        return (float) (dot / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+
+    @Override
+    public int dotInt8(byte[] a, byte[] b) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
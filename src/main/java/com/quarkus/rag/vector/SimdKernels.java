@@ -0,0 +1,82 @@
+package com.quarkus.rag.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementação com {@code jdk.incubator.vector}: acumula em registradores SIMD com FMA e reduz
+ * as lanes apenas no final. Só é carregada quando o módulo está presente
+ * ({@code --add-modules jdk.incubator.vector}).
+ */
+final class SimdKernels implements SimilarityKernels {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    // 8 bytes alargados para 8 ints, evitando overflow dos produtos int8
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_256;
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sum = FloatVector.zero(FLOATS);
+        int i = 0;
+        int bound = FLOATS.loopBound(length);
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+            sum = va.fma(vb, sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    public float cosine(float[] a, float[] b) {
+        FloatVector dot = FloatVector.zero(FLOATS);
+        FloatVector normA = FloatVector.zero(FLOATS);
+        FloatVector normB = FloatVector.zero(FLOATS);
+        int i = 0;
+        int bound = FLOATS.loopBound(a.length);
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector va = FloatVector.fromArray(FLOATS, a, i);
+            FloatVector vb = FloatVector.fromArray(FLOATS, b, i);
+            dot = va.fma(vb, dot);
+            normA = va.fma(va, normA);
+            normB = vb.fma(vb, normB);
+        }
+        float d = dot.reduceLanes(VectorOperators.ADD);
+        float na = normA.reduceLanes(VectorOperators.ADD);
+        float nb = normB.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            d += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        if (na == 0 || nb == 0) {
+            return 0;
+        }
+        return (float) (d / (Math.sqrt(na) * Math.sqrt(nb)));
+    }
+
+    @Override
+    public int dotInt8(byte[] a, byte[] b) {
+        IntVector sum = IntVector.zero(INTS);
+        int i = 0;
+        int bound = BYTES.loopBound(a.length);
+        for (; i < bound; i += BYTES.length()) {
+            IntVector va = (IntVector) ByteVector.fromArray(BYTES, a, i).convertShape(VectorOperators.B2I, INTS, 0);
+            IntVector vb = (IntVector) ByteVector.fromArray(BYTES, b, i).convertShape(VectorOperators.B2I, INTS, 0);
+            sum = sum.add(va.mul(vb));
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            result += a[i] * b[i];
+        }
+        return result;
+    }
+}
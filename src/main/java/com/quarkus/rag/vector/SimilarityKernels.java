@@ -0,0 +1,13 @@
+package com.quarkus.rag.vector;
+
+/**
+ * Operações básicas de similaridade; há uma implementação escalar e outra com a Vector API (SIMD).
+ */
+interface SimilarityKernels {
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    float cosine(float[] a, float[] b);
+
+    int dotInt8(byte[] a, byte[] b);
+}
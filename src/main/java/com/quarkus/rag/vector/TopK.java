@@ -0,0 +1,11 @@
+package com.quarkus.rag.vector;
+
+/**
+ * Resultado de {@link VectorMath#topK}: índices das linhas da matriz e seus scores, em ordem decrescente.
+ */
+public record TopK(int[] indexes, float[] scores) {
+
+    public int size() {
+        return indexes.length;
+    }
+}
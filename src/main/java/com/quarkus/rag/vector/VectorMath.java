@@ -0,0 +1,133 @@
+package com.quarkus.rag.vector;
+
+import org.jboss.logging.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Kernels de similaridade usados no scoring em memória (hoje, o MMR do {@code RetrievalService}:
+ * top-k sobre a matriz de candidatos e, com {@code rag.retrieval.mmr.int8}, o produto int8).
+ *
+ * Usa a Vector API ({@code jdk.incubator.vector}) quando o módulo foi adicionado à JVM
+ * ({@code --add-modules jdk.incubator.vector}) e cai para laços escalares caso contrário.
+ * {@code -Drag.vector.simd=false} força a implementação escalar. O módulo precisa estar também no
+ * {@code java -jar} de produção, não só no {@code quarkus:dev}.
+ */
+public final class VectorMath {
+
+    private static final Logger LOG = Logger.getLogger(VectorMath.class);
+
+    private static final SimilarityKernels KERNELS = selectKernels();
+
+    private VectorMath() {
+    }
+
+    public static boolean isSimd() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    public static float dot(float[] a, float[] b) {
+        checkLength(a.length, b.length);
+        return KERNELS.dot(a, 0, b, 0, a.length);
+    }
+
+    public static float cosine(float[] a, float[] b) {
+        checkLength(a.length, b.length);
+        return KERNELS.cosine(a, b);
+    }
+
+    public static float norm(float[] vector) {
+        return (float) Math.sqrt(KERNELS.dot(vector, 0, vector, 0, vector.length));
+    }
+
+    /**
+     * Cópia com norma 1; depois disso o cosseno entre dois vetores é só o produto escalar.
+     */
+    public static float[] normalize(float[] vector) {
+        float norm = norm(vector);
+        float[] normalized = vector.clone();
+        if (norm > 0) {
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] /= norm;
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Os {@code k} maiores produtos escalares entre {@code query} e as linhas de uma matriz contígua
+     * ({@code rows × dimension}, linha a linha). Com linhas normalizadas o score é o cosseno.
+     */
+    public static TopK topK(float[] matrix, int dimension, float[] query, int k) {
+        return topK(KERNELS, matrix, dimension, query, k);
+    }
+
+    static TopK topK(SimilarityKernels kernels, float[] matrix, int dimension, float[] query, int k) {
+        checkLength(dimension, query.length);
+        if (matrix.length % dimension != 0) {
+            throw new IllegalArgumentException("Matrix length must be a multiple of dimension " + dimension);
+        }
+        int rows = matrix.length / dimension;
+        int size = Math.min(k, rows);
+        int[] indexes = new int[size];
+        float[] scores = new float[size];
+        Arrays.fill(scores, Float.NEGATIVE_INFINITY);
+
+        for (int row = 0; row < rows; row++) {
+            float score = kernels.dot(matrix, row * dimension, query, 0, dimension);
+            if (size == 0 || score <= scores[size - 1]) {
+                continue;
+            }
+            // Inserção ordenada: k é pequeno comparado ao número de linhas
+            int position = size - 1;
+            while (position > 0 && scores[position - 1] < score) {
+                scores[position] = scores[position - 1];
+                indexes[position] = indexes[position - 1];
+                position--;
+            }
+            scores[position] = score;
+            indexes[position] = row;
+        }
+        return new TopK(indexes, scores);
+    }
+
+    public static int dotInt8(byte[] a, byte[] b) {
+        checkLength(a.length, b.length);
+        return KERNELS.dotInt8(a, b);
+    }
+
+    private static void checkLength(int a, int b) {
+        if (a != b) {
+            throw new IllegalArgumentException("Vector dimensions differ: " + a + " != " + b);
+        }
+    }
+
+    private static SimilarityKernels selectKernels() {
+        if (!Boolean.parseBoolean(System.getProperty("rag.vector.simd", "true"))) {
+            LOG.info("[VectorMath] SIMD disabled by rag.vector.simd=false, using scalar kernels");
+            return new ScalarKernels();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            LOG.info("[VectorMath] jdk.incubator.vector not available, using scalar kernels");
+            return new ScalarKernels();
+        }
+        try {
+            SimilarityKernels kernels = simdKernels();
+            LOG.info("[VectorMath] Using SIMD kernels (jdk.incubator.vector)");
+            return kernels;
+        } catch (LinkageError | ReflectiveOperationException e) {
+            LOG.warn("[VectorMath] Could not load SIMD kernels, using scalar kernels", e);
+            return new ScalarKernels();
+        }
+    }
+
+    /**
+     * Carregado por nome: {@code SimdKernels} é compilado numa execução separada do compilador (a única com
+     * {@code --add-modules jdk.incubator.vector}), e nenhuma outra classe pode referenciá-lo diretamente.
+     */
+    static SimilarityKernels simdKernels() throws ReflectiveOperationException {
+        return (SimilarityKernels) Class.forName(VectorMath.class.getPackageName() + ".SimdKernels")
+            .getDeclaredConstructor()
+            .newInstance();
+    }
+}